@@ -24,12 +24,21 @@
  */
 package org.graalvm.compiler.core.amd64;
 
+import java.util.ListIterator;
+
 import org.graalvm.compiler.java.DefaultSuitesCreator;
 import org.graalvm.compiler.lir.amd64.phases.StackMoveOptimizationPhase;
 import org.graalvm.compiler.lir.phases.LIRSuites;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
 import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.IncrementalCanonicalizerPhase;
+import org.graalvm.compiler.phases.common.LoweringPhase;
 import org.graalvm.compiler.phases.tiers.CompilerConfiguration;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+import org.graalvm.compiler.phases.tiers.Suites;
+import org.graalvm.compiler.replacements.ArrayScanLoopVectorizationPhase;
 
 public class AMD64SuitesCreator extends DefaultSuitesCreator {
 
@@ -41,6 +50,20 @@ public class AMD64SuitesCreator extends DefaultSuitesCreator {
         super(compilerConfiguration);
     }
 
+    @Override
+    public Suites createSuites(OptionValues options) {
+        Suites suites = super.createSuites(options);
+        if (ArrayScanLoopVectorizationPhase.Options.VectorizeArrayScanLoops.getValue(options)) {
+            /* Must run before lowering replaces the array loads. */
+            ListIterator<BasePhase<? super HighTierContext>> position = suites.getHighTier().findPhase(LoweringPhase.class);
+            if (position != null) {
+                position.previous();
+                position.add(new IncrementalCanonicalizerPhase<>(CanonicalizerPhase.create(), new ArrayScanLoopVectorizationPhase()));
+            }
+        }
+        return suites;
+    }
+
     @Override
     public LIRSuites createLIRSuites(OptionValues options) {
         LIRSuites lirSuites = super.createLIRSuites(options);
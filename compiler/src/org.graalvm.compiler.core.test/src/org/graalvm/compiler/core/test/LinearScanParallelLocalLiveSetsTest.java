@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.debug.Assertions;
+import org.graalvm.compiler.lir.alloc.lsra.LinearScanLifetimeAnalysisPhase;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Test;
+
+/**
+ * Compiles methods with loops, switches and exception handlers with the local live sets of the
+ * linear scan allocator computed in parallel for every method.
+ */
+public class LinearScanParallelLocalLiveSetsTest extends GraalCompilerTest {
+
+    /** The parallel path is not taken with detailed assertions. */
+    private OptionValues options() {
+        return new OptionValues(getInitialOptions(), LinearScanLifetimeAnalysisPhase.Options.LIROptLSRAParallelLocalLiveSetsThreshold, 1,
+                        Assertions.Options.DetailedAsserts, false);
+    }
+
+    public static int nestedLoops(int[] a, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            int inner = 0;
+            for (int j = 0; j < a.length; j++) {
+                if ((a[j] & 1) == 0) {
+                    inner += a[j] * i;
+                } else {
+                    inner -= a[j];
+                }
+            }
+            sum += inner;
+        }
+        return sum;
+    }
+
+    public static long switchInLoop(int[] a) {
+        long x = 1;
+        long y = 2;
+        long z = 3;
+        for (int v : a) {
+            switch (v % 5) {
+                case 0:
+                    x += y;
+                    break;
+                case 1:
+                    y ^= z;
+                    break;
+                case 2:
+                    z = z * 31 + x;
+                    break;
+                case 3:
+                    x = y - z;
+                    break;
+                default:
+                    y += v;
+                    break;
+            }
+        }
+        return x + 3 * y + 7 * z;
+    }
+
+    public static int exceptionHandler(int[] a, int index) {
+        int before = a.length;
+        try {
+            return a[index] / (index - 2);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return before;
+        } catch (ArithmeticException e) {
+            return -before;
+        }
+    }
+
+    private static final int[] VALUES = {3, 8, -4, 15, 16, 23, 42, 7, 0, -9};
+
+    @Test
+    public void testNestedLoops() {
+        test(options(), "nestedLoops", VALUES, 7);
+        test(options(), "nestedLoops", VALUES, 0);
+    }
+
+    @Test
+    public void testSwitchInLoop() {
+        test(options(), "switchInLoop", VALUES);
+        test(options(), "switchInLoop", new int[0]);
+    }
+
+    @Test
+    public void testExceptionHandler() {
+        test(options(), "exceptionHandler", VALUES, 1);
+        test(options(), "exceptionHandler", VALUES, 2);
+        test(options(), "exceptionHandler", VALUES, 20);
+    }
+}
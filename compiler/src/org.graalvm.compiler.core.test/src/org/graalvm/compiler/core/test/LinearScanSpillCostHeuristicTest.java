@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test;
+
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugOptions;
+import org.graalvm.compiler.lir.alloc.lsra.LinearScan;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Compiles methods with more values live in a loop than there are registers, so that the linear
+ * scan allocator must spill, with the spill-cost heuristic enabled. The values are used inside the
+ * loop, so that the scheduler cannot move them below the loop. The tests also check that the
+ * heuristic chooses a different register to spill than the default at least once. This is only
+ * checked on AMD64, where the methods need more registers than the allocator can use.
+ */
+public class LinearScanSpillCostHeuristicTest extends GraalCompilerTest {
+
+    private static final String SPILL_COST_REGISTER_CHANGED = "LSRA[spillCostRegisterChanged]";
+
+    private OptionValues options(boolean spillCostHeuristic) {
+        return new OptionValues(getInitialOptions(), LinearScan.Options.LIROptLSRASpillCostHeuristic, spillCostHeuristic, DebugOptions.Counters, SPILL_COST_REGISTER_CHANGED);
+    }
+
+    /**
+     * Twenty values are live in the whole loop. Five of them change in every iteration. The others
+     * are loop invariant and are each used once in the loop, some of them only in a rarely taken
+     * branch.
+     */
+    public static long manyLiveLongs(long seed, int n) {
+        long v0 = seed;
+        long v1 = seed * 3;
+        long v2 = seed ^ 0x5555;
+        long v3 = seed + 7;
+        long v4 = seed << 2;
+        long v5 = seed >>> 3;
+        long v6 = seed - 11;
+        long v7 = seed * 13;
+        long v8 = seed | 0xF0F0;
+        long v9 = seed & 0x0F0F;
+        long v10 = seed * 17;
+        long v11 = seed + 19;
+        long v12 = seed ^ 23;
+        long v13 = seed - 29;
+        long v14 = seed * 31;
+        long v15 = seed + 37;
+        long v16 = seed ^ 41;
+        long v17 = seed - 43;
+        long v18 = seed * 47;
+        long v19 = seed + 53;
+        for (int i = 0; i < n; i++) {
+            v0 = (v0 ^ v3) * v4 + v1;
+            v1 = (v1 + v5) * v6 ^ v0;
+            v2 = (v2 * v7 ^ v19) + v8;
+            v19 = (v19 - v9) * v11 ^ v2;
+            v10 = (v10 ^ v12) * v13 + (v0 >>> 3);
+            if ((i & 63) == 63) {
+                v0 = (v0 + v14) * v15 ^ v16;
+                v1 = (v1 ^ v17) * v18 + v10;
+            }
+        }
+        return v0 + v1 + v2 + v3 + v4 + v5 + v6 + v7 + v8 + v9 + v10 + v11 + v12 + v13 + v14 + v15 + v16 + v17 + v18 + v19;
+    }
+
+    /**
+     * Eighteen values are live in the whole loop and across the call in it, which destroys all
+     * caller-saved registers.
+     */
+    public static double liveAcrossCall(double a, double b, int n) {
+        double d0 = a + b;
+        double d1 = a - b;
+        double d2 = a * b;
+        double d3 = a / (b + 1);
+        double d4 = a + 1;
+        double d5 = b + 2;
+        double d6 = a * 3;
+        double d7 = b * 5;
+        double d8 = a - 7;
+        double d9 = b - 11;
+        double d10 = a * a;
+        double d11 = b * b;
+        double d12 = a + 13;
+        double d13 = b + 17;
+        double d14 = a * 19;
+        double d15 = b * 23;
+        double d16 = a - 29;
+        double d17 = b - 31;
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            double x = callee(d0 + i);
+            double y = ((x + d1) * d2 - d3) * d4;
+            double z = ((x - d5) * d6 + d7) * d8;
+            double w = ((x * d9) - d10) * d11 + d12;
+            double u = ((x + d13) * d14 - d15) * d16 + d17;
+            sum += y + z + w + u;
+            d0 = d0 * 0.5 + x;
+        }
+        return sum + d0 + d1 + d2 + d3 + d4 + d5 + d6 + d7 + d8 + d9 + d10 + d11 + d12 + d13 + d14 + d15 + d16 + d17;
+    }
+
+    @BytecodeParserNeverInline
+    public static double callee(double x) {
+        return Math.sqrt(Math.abs(x)) + 1;
+    }
+
+    /**
+     * Compiles the method and returns how often the spill-cost heuristic chose a different register
+     * to spill than the default heuristic.
+     */
+    private long countChangedSpillRegisters(String methodName, boolean spillCostHeuristic) {
+        ResolvedJavaMethod method = getResolvedJavaMethod(methodName);
+        DebugContext debug = getDebugContext(options(spillCostHeuristic), null, method);
+        compile(method, parseForCompile(method, debug));
+        return DebugContext.counter(SPILL_COST_REGISTER_CHANGED).getCurrentValue(debug);
+    }
+
+    private void checkSpillRegisterChanged(String methodName) {
+        Assume.assumeTrue("other architectures may have enough registers", getTarget().arch instanceof AMD64);
+        Assert.assertEquals(0, countChangedSpillRegisters(methodName, false));
+        Assert.assertNotEquals("the spill-cost heuristic never changed the register to spill", 0, countChangedSpillRegisters(methodName, true));
+    }
+
+    @Test
+    public void testManyLiveLongs() {
+        test(options(true), "manyLiveLongs", 12345L, 0);
+        test(options(true), "manyLiveLongs", 12345L, 100);
+        test(options(true), "manyLiveLongs", -1L, 1000);
+        checkSpillRegisterChanged("manyLiveLongs");
+    }
+
+    @Test
+    public void testLiveAcrossCall() {
+        test(options(true), "liveAcrossCall", 1.5, 2.5, 0);
+        test(options(true), "liveAcrossCall", 1.5, 2.5, 10);
+        test(options(true), "liveAcrossCall", -3.0, 0.25, 100);
+        checkSpillRegisterChanged("liveAcrossCall");
+    }
+}
@@ -62,7 +62,7 @@ public final class CompilationStatistics {
 
     private static final long RESOLUTION = 100000000;
 
-    private static final CompilationStatistics DUMMY = new CompilationStatistics(null, false);
+    private static final CompilationStatistics DUMMY = new CompilationStatistics(null, false, "");
 
     private static ConcurrentLinkedDeque<CompilationStatistics> list = new ConcurrentLinkedDeque<>();
 
@@ -98,12 +98,14 @@ public final class CompilationStatistics {
     @TimeValue private long duration;
     private long memoryUsed;
     private final boolean osr;
+    private final String compilerConfiguration;
     private final String holder;
     private final String name;
     private final String signature;
 
-    private CompilationStatistics(HotSpotResolvedJavaMethod method, boolean osr) {
+    private CompilationStatistics(HotSpotResolvedJavaMethod method, boolean osr, String compilerConfiguration) {
         this.osr = osr;
+        this.compilerConfiguration = compilerConfiguration;
         if (method != null) {
             holder = method.getDeclaringClass().getName();
             name = method.getName();
@@ -136,9 +138,9 @@ public final class CompilationStatistics {
         return current.get().isEmpty() ? null : current.get().getLast();
     }
 
-    public static CompilationStatistics create(OptionValues options, HotSpotResolvedJavaMethod method, boolean isOSR) {
+    public static CompilationStatistics create(OptionValues options, HotSpotResolvedJavaMethod method, boolean isOSR, String compilerConfiguration) {
         if (Options.UseCompilationStatistics.getValue(options)) {
-            CompilationStatistics stats = new CompilationStatistics(method, isOSR);
+            CompilationStatistics stats = new CompilationStatistics(method, isOSR, compilerConfiguration);
             list.add(stats);
             current.get().addLast(stats);
             return stats;
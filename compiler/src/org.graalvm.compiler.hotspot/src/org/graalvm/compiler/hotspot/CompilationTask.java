@@ -162,7 +162,7 @@ public class CompilationTask {
             HotSpotResolvedJavaMethod method = getMethod();
             int entryBCI = getEntryBCI();
             final boolean isOSR = entryBCI != JVMCICompiler.INVOCATION_ENTRY_BCI;
-            CompilationStatistics stats = CompilationStatistics.create(debug.getOptions(), method, isOSR);
+            CompilationStatistics stats = CompilationStatistics.create(debug.getOptions(), method, isOSR, compiler.getGraalRuntime().getCompilerConfigurationName());
 
             final CompilationPrinter printer = CompilationPrinter.begin(debug.getOptions(), compilationId, method, entryBCI);
 
@@ -221,13 +221,17 @@ public class CompilationTask {
     public OptionValues filterOptions(OptionValues options) {
         /*
          * Disable inlining if HotSpot has it disabled unless it's been explicitly set in Graal.
+         * The economy configuration is meant for fast compilation, so it also does not inline
+         * during parsing unless explicitly requested. This keeps graphs as small as the bytecode
+         * of the compiled method.
          */
         HotSpotGraalRuntimeProvider graalRuntime = compiler.getGraalRuntime();
         GraalHotSpotVMConfig config = graalRuntime.getVMConfig();
         OptionValues newOptions = options;
-        if (!config.inline) {
+        boolean economy = EconomyCompilerConfigurationFactory.NAME.equals(graalRuntime.getCompilerConfigurationName());
+        if (!config.inline || economy) {
             EconomicMap<OptionKey<?>, Object> m = OptionValues.newOptionMap();
-            if (Inline.getValue(options) && !Inline.hasBeenSet(options)) {
+            if (!config.inline && Inline.getValue(options) && !Inline.hasBeenSet(options)) {
                 m.put(Inline, false);
             }
             if (InlineDuringParsing.getValue(options) && !InlineDuringParsing.hasBeenSet(options)) {
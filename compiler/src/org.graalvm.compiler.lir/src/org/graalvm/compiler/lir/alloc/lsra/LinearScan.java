@@ -85,6 +85,9 @@ public class LinearScan {
         // @formatter:off
         @Option(help = "Enable spill position optimization", type = OptionType.Debug)
         public static final OptionKey<Boolean> LIROptLSRAOptimizeSpillPosition = new NestedBooleanOptionKey(LIROptimization, true);
+        @Option(help = "When no register is free, evict the intervals with the lowest frequency-weighted number of remaining " +
+                       "uses instead of the intervals whose next use is farthest away.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> LIROptLSRASpillCostHeuristic = new OptionKey<>(false);
         // @formatter:on
     }
 
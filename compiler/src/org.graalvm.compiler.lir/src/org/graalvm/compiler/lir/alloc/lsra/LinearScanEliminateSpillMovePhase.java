@@ -33,6 +33,7 @@ import java.util.ArrayList;
 
 import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
 import org.graalvm.compiler.debug.Assertions;
+import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.Indent;
 import org.graalvm.compiler.lir.LIRInsertionBuffer;
@@ -61,6 +62,9 @@ public class LinearScanEliminateSpillMovePhase extends LinearScanAllocationPhase
         // @formatter:on
     }
 
+    private static final CounterKey spillStores = DebugContext.counter("LSRA[spillStores]");
+    private static final CounterKey eliminatedSpillMoves = DebugContext.counter("LSRA[eliminatedSpillMoves]");
+
     private static final IntervalPredicate mustStoreAtDefinition = new LinearScan.IntervalPredicate() {
 
         @Override
@@ -141,6 +145,7 @@ public class LinearScanEliminateSpillMovePhase extends LinearScanAllocationPhase
 
                                 // null-instructions are deleted by assignRegNum
                                 instructions.set(j, null);
+                                eliminatedSpillMoves.increment(debug);
                             }
 
                         } else {
@@ -172,6 +177,7 @@ public class LinearScanEliminateSpillMovePhase extends LinearScanAllocationPhase
                                         LIRInstruction move = allocator.getSpillMoveFactory().createMove(toLocation, fromLocation);
                                         insertionBuffer.append(j + 1, move);
                                         move.setComment(res, "LSRAEliminateSpillMove: store at definition");
+                                        spillStores.increment(debug);
 
                                         if (debug.isLogEnabled()) {
                                             debug.log("inserting move after definition of interval %d to stack slot %s at opId %d", interval.operandNumber, interval.spillSlot(), opId);
@@ -37,6 +37,8 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.EnumSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import org.graalvm.collections.EconomicSet;
 import org.graalvm.collections.Equivalence;
@@ -63,11 +65,15 @@ import org.graalvm.compiler.lir.alloc.lsra.LinearScan.BlockData;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
 import org.graalvm.compiler.lir.phases.AllocationPhase.AllocationContext;
 import org.graalvm.compiler.lir.util.IndexedValueMap;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
 
 import jdk.vm.ci.code.Register;
 import jdk.vm.ci.code.RegisterArray;
 import jdk.vm.ci.code.StackSlot;
 import jdk.vm.ci.code.TargetDescription;
+import jdk.vm.ci.common.NativeImageReinitialize;
 import jdk.vm.ci.meta.AllocatableValue;
 import jdk.vm.ci.meta.Constant;
 import jdk.vm.ci.meta.Value;
@@ -75,6 +81,39 @@ import jdk.vm.ci.meta.ValueKind;
 
 public class LinearScanLifetimeAnalysisPhase extends LinearScanAllocationPhase {
 
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Minimum number of blocks for which the local live sets are computed in parallel (0 disables it).", type = OptionType.Expert)
+        public static final OptionKey<Integer> LIROptLSRAParallelLocalLiveSetsThreshold = new OptionKey<>(0);
+        // @formatter:on
+    }
+
+    /**
+     * The pool that computes local live sets in parallel, created on first use. The parallel
+     * stream runs in this pool instead of the common pool, so that compilations do not compete
+     * with or wait for the tasks of the application in the common pool. All compiler threads share
+     * the pool, so the number of helper threads is bounded by the number of processors no matter
+     * how many compiler threads there are. The workers of a {@link ForkJoinPool} are daemon
+     * threads that terminate when the pool is idle, so the pool is never shut down. The field is
+     * reset in libgraal, so that a pool created while the libgraal image is built does not end up
+     * in the image heap.
+     */
+    @NativeImageReinitialize private static volatile ForkJoinPool liveSetsPool;
+
+    private static ForkJoinPool getLiveSetsPool() {
+        ForkJoinPool pool = liveSetsPool;
+        if (pool == null) {
+            synchronized (LinearScanLifetimeAnalysisPhase.class) {
+                pool = liveSetsPool;
+                if (pool == null) {
+                    pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                    liveSetsPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
     protected final LinearScan allocator;
     protected final DebugContext debug;
 
@@ -172,6 +211,12 @@ public class LinearScanLifetimeAnalysisPhase extends LinearScanAllocationPhase {
             throw new PermanentBailoutException(e, "Cannot handle %d variables in %d loops", variables, loops);
         }
 
+        int parallelThreshold = Options.LIROptLSRAParallelLocalLiveSetsThreshold.getValue(allocator.getOptions());
+        if (parallelThreshold > 0 && allocator.sortedBlocks().length >= parallelThreshold && !allocator.detailedAsserts && !debug.isLogEnabled()) {
+            computeLocalLiveSetsInParallel(liveSize);
+            return;
+        }
+
         try {
             final BitSet liveGenScratch = new BitSet(liveSize);
             final BitSet liveKillScratch = new BitSet(liveSize);
@@ -272,6 +317,85 @@ public class LinearScanLifetimeAnalysisPhase extends LinearScanAllocationPhase {
         }
     }
 
+    /**
+     * Computes the same local live sets as {@link #computeLocalLiveSets()}, but processes the
+     * blocks in parallel. Each block only reads its own instructions and writes its own
+     * {@link BlockData}, so the blocks are independent except for {@link #intervalInLoop}, which
+     * is not thread-safe. The variables occurring in each loop block are therefore collected per
+     * block and entered into {@link #intervalInLoop} sequentially afterwards. Only used when
+     * neither logging nor detailed assertions are enabled because {@link DebugContext} is
+     * confined to the compiler thread.
+     */
+    private void computeLocalLiveSetsInParallel(int liveSize) {
+        AbstractBlockBase<?>[] blocks = allocator.sortedBlocks();
+        BitSet[] loopVariables = new BitSet[blocks.length];
+        try {
+            getLiveSetsPool().submit(() -> IntStream.range(0, blocks.length).parallel().forEach(i -> {
+                AbstractBlockBase<?> block = blocks[i];
+                BitSet liveGen = new BitSet(liveSize);
+                BitSet liveKill = new BitSet(liveSize);
+                BitSet inLoop = block.getLoop() != null ? new BitSet(liveSize) : null;
+
+                ValueConsumer useConsumer = (operand, mode, flags) -> {
+                    if (isVariable(operand)) {
+                        int operandNum = getOperandNumber(operand);
+                        if (!liveKill.get(operandNum)) {
+                            liveGen.set(operandNum);
+                        }
+                        if (inLoop != null) {
+                            inLoop.set(operandNum);
+                        }
+                    }
+                };
+                ValueConsumer stateConsumer = (operand, mode, flags) -> {
+                    if (LinearScan.isVariableOrRegister(operand) && allocator.isProcessed(operand)) {
+                        int operandNum = getOperandNumber(operand);
+                        if (!liveKill.get(operandNum)) {
+                            liveGen.set(operandNum);
+                        }
+                    }
+                };
+                ValueConsumer defConsumer = (operand, mode, flags) -> {
+                    if (isVariable(operand)) {
+                        int varNum = getOperandNumber(operand);
+                        liveKill.set(varNum);
+                        if (inLoop != null) {
+                            inLoop.set(varNum);
+                        }
+                    }
+                };
+
+                for (LIRInstruction op : allocator.getLIR().getLIRforBlock(block)) {
+                    op.visitEachInput(useConsumer);
+                    op.visitEachAlive(useConsumer);
+                    op.visitEachState(stateConsumer);
+                    op.visitEachTemp(defConsumer);
+                    op.visitEachOutput(defConsumer);
+                }
+
+                BlockData blockSets = allocator.getBlockData(block);
+                blockSets.liveGen = trimClone(liveGen);
+                blockSets.liveKill = trimClone(liveKill);
+                // sticky size, will get non-sticky in computeGlobalLiveSets
+                blockSets.liveIn = new BitSet(0);
+                blockSets.liveOut = new BitSet(0);
+                loopVariables[i] = inLoop;
+            })).join();
+        } catch (OutOfMemoryError oom) {
+            throw new PermanentBailoutException(oom, "Out-of-memory during live set allocation of size %d", liveSize);
+        }
+
+        for (int i = 0; i < blocks.length; i++) {
+            BitSet inLoop = loopVariables[i];
+            if (inLoop != null) {
+                int loopIndex = blocks[i].getLoop().getIndex();
+                for (int operandNum = inLoop.nextSetBit(0); operandNum >= 0; operandNum = inLoop.nextSetBit(operandNum + 1)) {
+                    intervalInLoop.setBit(operandNum, loopIndex);
+                }
+            }
+        }
+    }
+
     private void verifyTemp(BitSet liveKill, Value operand) {
         /*
          * Fixed intervals are never live at block boundaries, so they need not be processed in live
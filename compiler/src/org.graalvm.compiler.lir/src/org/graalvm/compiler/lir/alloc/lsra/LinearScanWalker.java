@@ -38,6 +38,7 @@ import java.util.List;
 import org.graalvm.compiler.core.common.alloc.RegisterAllocationConfig.AllocatableRegisters;
 import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
 import org.graalvm.compiler.core.common.util.Util;
+import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.debug.Indent;
@@ -48,6 +49,7 @@ import org.graalvm.compiler.lir.alloc.lsra.Interval.RegisterBinding;
 import org.graalvm.compiler.lir.alloc.lsra.Interval.RegisterPriority;
 import org.graalvm.compiler.lir.alloc.lsra.Interval.SpillState;
 import org.graalvm.compiler.lir.alloc.lsra.Interval.State;
+import org.graalvm.compiler.lir.alloc.lsra.Interval.UsePosList;
 
 import jdk.vm.ci.code.Register;
 import jdk.vm.ci.meta.Value;
@@ -56,6 +58,9 @@ import jdk.vm.ci.meta.Value;
  */
 class LinearScanWalker extends IntervalWalker {
 
+    private static final CounterKey splitMoves = DebugContext.counter("LSRA[splitMoves]");
+    private static final CounterKey spillCostRegisterChanged = DebugContext.counter("LSRA[spillCostRegisterChanged]");
+
     protected Register[] availableRegs;
 
     protected final int[] usePos;
@@ -69,6 +74,8 @@ class LinearScanWalker extends IntervalWalker {
 
     private int maxReg;
 
+    private final boolean useSpillCosts;
+
     /**
      * Only 10% of the lists in {@link #spillIntervals} are actually used. But when they are used,
      * they can grow quite long. The maximum length observed was 45 (all numbers taken from a
@@ -100,6 +107,7 @@ class LinearScanWalker extends IntervalWalker {
         }
         usePos = new int[allocator.getRegisters().size()];
         blockPos = new int[allocator.getRegisters().size()];
+        useSpillCosts = LinearScan.Options.LIROptLSRASpillCostHeuristic.getValue(allocator.getOptions());
     }
 
     void initUseLists(boolean onlyProcessUsePos) {
@@ -292,6 +300,7 @@ class LinearScanWalker extends IntervalWalker {
         // insert new instruction before instruction at position index
         moveResolver.moveInsertPosition(instructions, index);
         moveResolver.addMapping(srcIt, dstIt);
+        splitMoves.increment(allocator.getDebug());
     }
 
     int findOptimalSplitPos(AbstractBlockBase<?> minBlock, AbstractBlockBase<?> maxBlock, int maxSplitPos) {
@@ -874,19 +883,8 @@ class LinearScanWalker extends IntervalWalker {
                     printRegisterState();
                 }
 
-                reg = null;
                 ignore = interval.location() != null && isRegister(interval.location()) ? asRegister(interval.location()) : null;
-
-                for (Register availableReg : availableRegs) {
-                    int number = availableReg.number;
-                    if (availableReg.equals(ignore)) {
-                        // this register must be ignored
-                    } else if (usePos[number] > regNeededUntil) {
-                        if (reg == null || (usePos[number] > usePos[reg.number])) {
-                            reg = availableReg;
-                        }
-                    }
-                }
+                reg = selectSpillRegister(ignore, regNeededUntil, firstShouldHaveUsage);
 
                 int regUsePos = (reg == null ? 0 : usePos[reg.number]);
                 if (regUsePos <= firstShouldHaveUsage) {
@@ -950,6 +948,73 @@ class LinearScanWalker extends IntervalWalker {
         }
     }
 
+    /**
+     * Selects the register that is made available for the current interval by splitting and
+     * spilling the intervals occupying it. By default, this is the register whose next use is the
+     * farthest away. With {@link LinearScan.Options#LIROptLSRASpillCostHeuristic}, the register
+     * whose occupying intervals have the lowest {@linkplain #spillCost(Register) spill cost} is
+     * chosen instead, but only among the registers that are free beyond the first use of the
+     * current interval. This keeps the decision of whether to spill the current interval itself
+     * unchanged. Choices that differ from the default are counted in
+     * {@code LSRA[spillCostRegisterChanged]}.
+     */
+    private Register selectSpillRegister(Register ignore, int regNeededUntil, int firstShouldHaveUsage) {
+        Register reg = null;
+        for (Register availableReg : availableRegs) {
+            int number = availableReg.number;
+            if (availableReg.equals(ignore)) {
+                // this register must be ignored
+            } else if (usePos[number] > regNeededUntil) {
+                if (reg == null || (usePos[number] > usePos[reg.number])) {
+                    reg = availableReg;
+                }
+            }
+        }
+        if (!useSpillCosts || reg == null || usePos[reg.number] <= firstShouldHaveUsage) {
+            return reg;
+        }
+
+        Register cheapestReg = reg;
+        double cheapestCost = spillCost(reg);
+        for (Register availableReg : availableRegs) {
+            int number = availableReg.number;
+            if (!availableReg.equals(ignore) && !availableReg.equals(reg) && usePos[number] > regNeededUntil && usePos[number] > firstShouldHaveUsage) {
+                double cost = spillCost(availableReg);
+                if (cost < cheapestCost) {
+                    cheapestReg = availableReg;
+                    cheapestCost = cost;
+                }
+            }
+        }
+        if (!cheapestReg.equals(reg)) {
+            spillCostRegisterChanged.increment(allocator.getDebug());
+        }
+        return cheapestReg;
+    }
+
+    /**
+     * Estimates the cost of freeing {@code reg} at the current position as the sum of the
+     * frequency-weighted remaining register uses of all intervals that would have to be split and
+     * spilled, since each of these uses may need a reload from the stack.
+     */
+    private double spillCost(Register reg) {
+        double cost = 0;
+        for (Interval interval : spillIntervals[reg.number]) {
+            UsePosList usePosList = interval.usePosList();
+            // use positions are in descending order
+            for (int i = usePosList.size() - 1; i >= 0; i--) {
+                int pos = usePosList.usePos(i);
+                if (pos > allocator.maxOpId()) {
+                    break;
+                }
+                if (pos >= currentPosition && usePosList.registerPriority(i).greaterEqual(RegisterPriority.LiveAtLoopEnd)) {
+                    cost += blockOfOpWithId(pos).getRelativeFrequency();
+                }
+            }
+        }
+        return cost;
+    }
+
     private static String generateOutOfRegErrorMsg(Interval interval, int firstUsage, Register[] availableRegs) {
         return "Cannot spill interval (" + interval + ") that is used in first instruction (possible reason: no register found) firstUsage=" + firstUsage +
                         ", interval.from()=" + interval.from() + "; already used candidates: " + Arrays.toString(availableRegs);
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.replacements.ArrayIndexOfNode;
+import org.graalvm.compiler.replacements.ArrayScanLoopVectorizationPhase;
+import org.junit.Assume;
+import org.junit.Test;
+
+import jdk.vm.ci.amd64.AMD64;
+
+public class ArrayScanLoopVectorizationTest extends GraalCompilerTest {
+
+    private static final byte[] BYTES = "the quick brown fox jumps over the lazy dog".getBytes();
+    private static final char[] CHARS = "the quick brown fox jumps over the lazy dog".toCharArray();
+
+    public static int byteScan(byte[] a, int from, int to, byte c) {
+        for (int i = from; i < to; i++) {
+            if (a[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static int charScan(char[] a, int from, int to, char c) {
+        for (int i = from; i < to; i++) {
+            if (a[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static int scanExitValue(byte[] a, int to, byte c) {
+        int i = 0;
+        for (; i < to; i++) {
+            if (a[i] == c) {
+                break;
+            }
+        }
+        return i;
+    }
+
+    public static int intSearchValue(byte[] a, int c) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean vectorized;
+
+    private OptionValues options() {
+        return new OptionValues(getInitialOptions(), ArrayScanLoopVectorizationPhase.Options.VectorizeArrayScanLoops, true);
+    }
+
+    @Override
+    protected void checkHighTierGraph(StructuredGraph graph) {
+        vectorized = graph.getNodes().filter(ArrayIndexOfNode.class).isNotEmpty();
+    }
+
+    /**
+     * Compiles {@code name} and checks that the vectorized search was inserted. The phase is only
+     * installed in the AMD64 suites.
+     */
+    private void assertVectorized(String name, OptionValues options) {
+        Assume.assumeTrue(getTarget().arch instanceof AMD64);
+        vectorized = false;
+        getCode(getResolvedJavaMethod(name), null, true, false, options);
+        assertTrue(name + " was not vectorized", vectorized);
+    }
+
+    @Test
+    public void testByteScan() {
+        OptionValues options = options();
+        assertVectorized("byteScan", options);
+        test(options, "byteScan", BYTES, 0, BYTES.length, (byte) 'q');
+        test(options, "byteScan", BYTES, 5, BYTES.length, (byte) 'q');
+        test(options, "byteScan", BYTES, 0, BYTES.length, (byte) '!');
+        test(options, "byteScan", BYTES, 10, 5, (byte) 't');
+        test(options, "byteScan", BYTES, -1, BYTES.length, (byte) 't');
+        test(options, "byteScan", BYTES, 0, BYTES.length + 1, (byte) '!');
+        test(options, "byteScan", null, 0, 1, (byte) 't');
+    }
+
+    @Test
+    public void testCharScan() {
+        OptionValues options = options();
+        assertVectorized("charScan", options);
+        test(options, "charScan", CHARS, 0, CHARS.length, 'z');
+        test(options, "charScan", CHARS, 0, CHARS.length, '\u1234');
+        test(options, "charScan", CHARS, 40, CHARS.length, 'o');
+        test(options, "charScan", CHARS, 0, CHARS.length + 1, '!');
+    }
+
+    @Test
+    public void testNegativeLimit() {
+        OptionValues options = options();
+        assertVectorized("scanExitValue", options);
+        test(options, "scanExitValue", BYTES, -1, (byte) 't');
+        test(options, "scanExitValue", BYTES, Integer.MIN_VALUE, (byte) 't');
+        test(options, "scanExitValue", BYTES, BYTES.length, (byte) 'z');
+        test(options, "scanExitValue", BYTES, BYTES.length, (byte) '!');
+    }
+
+    @Test
+    public void testSearchValueOutOfRange() {
+        OptionValues options = options();
+        test(options, "intSearchValue", new byte[]{1, 2, -1}, 255);
+        test(options, "intSearchValue", new byte[]{1, 2, -1}, -1);
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.core.common.type.IntegerStamp;
+import org.graalvm.compiler.core.common.type.Stamp;
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.nodes.AbstractBeginNode;
+import org.graalvm.compiler.nodes.AbstractEndNode;
+import org.graalvm.compiler.nodes.BeginNode;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.EndNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.IfNode;
+import org.graalvm.compiler.nodes.LogicNode;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.LoopExitNode;
+import org.graalvm.compiler.nodes.MergeNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.ProfileData.BranchProbabilityData;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.ConditionalNode;
+import org.graalvm.compiler.nodes.calc.IntegerBelowNode;
+import org.graalvm.compiler.nodes.calc.IntegerEqualsNode;
+import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
+import org.graalvm.compiler.nodes.calc.IsNullNode;
+import org.graalvm.compiler.nodes.extended.BranchProbabilityNode;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.loop.BasicInductionVariable;
+import org.graalvm.compiler.nodes.loop.CountedLoopInfo;
+import org.graalvm.compiler.nodes.loop.InductionVariable;
+import org.graalvm.compiler.nodes.loop.InductionVariable.Direction;
+import org.graalvm.compiler.nodes.loop.LoopEx;
+import org.graalvm.compiler.nodes.loop.LoopsData;
+import org.graalvm.compiler.nodes.spi.CoreProviders;
+import org.graalvm.compiler.nodes.type.StampTool;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.phases.BasePhase;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Vectorizes counted loops that scan a {@code byte[]} or {@code char[]} for a value:
+ *
+ * <pre>
+ * for (int i = from; i < to; i++) {
+ *     if (a[i] == c) {
+ *         // exit the loop
+ *     }
+ * }
+ * </pre>
+ *
+ * The loop itself is left unchanged. Instead, an {@link ArrayIndexOfNode}, which uses SIMD
+ * instructions, is inserted before the loop and the start value of the induction variable is
+ * moved to the first match, or to {@code to} if there is no match. The loop then executes at most
+ * one iteration, which takes the same exit with the same values as the scalar loop would.
+ *
+ * The skipped iterations must neither have side effects nor throw, so the loop body may only
+ * contain the load and the two exits, and the vector search is only used when
+ * {@code 0 <= from < to <= a.length}. Otherwise, the scalar loop runs from the original start.
+ */
+public class ArrayScanLoopVectorizationPhase extends BasePhase<CoreProviders> {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Replace loops that search a byte or char array for a value with a vectorized search.", type = OptionType.Expert)
+        public static final OptionKey<Boolean> VectorizeArrayScanLoops = new OptionKey<>(false);
+        // @formatter:on
+    }
+
+    private static final CounterKey VECTORIZED_LOOPS = DebugContext.counter("VectorizedArrayScanLoops");
+
+    /** A loop that matches the pattern described in the class comment. */
+    private static final class ArrayScan {
+        final LoopBeginNode loopBegin;
+        final ValuePhiNode iv;
+        final ValueNode limit;
+        final LoadIndexedNode load;
+        final ValueNode searchValue;
+
+        ArrayScan(LoopBeginNode loopBegin, ValuePhiNode iv, ValueNode limit, LoadIndexedNode load, ValueNode searchValue) {
+            this.loopBegin = loopBegin;
+            this.iv = iv;
+            this.limit = limit;
+            this.load = load;
+            this.searchValue = searchValue;
+        }
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, CoreProviders context) {
+        if (!graph.hasLoops()) {
+            return;
+        }
+        LoopsData loopsData = context.getLoopsDataProvider().getLoopsData(graph);
+        loopsData.detectedCountedLoops();
+        List<ArrayScan> scans = new ArrayList<>();
+        for (LoopEx loop : loopsData.countedLoops()) {
+            ArrayScan scan = match(loop);
+            if (scan != null) {
+                scans.add(scan);
+            }
+        }
+        for (ArrayScan scan : scans) {
+            vectorize(graph, scan);
+            VECTORIZED_LOOPS.increment(graph.getDebug());
+            graph.getDebug().dump(DebugContext.DETAILED_LEVEL, graph, "After vectorizing array scan loop %s", scan.loopBegin);
+        }
+    }
+
+    private static ArrayScan match(LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        if (counted.isInverted() || counted.isLimitIncluded() || counted.isUnsignedCheck() || counted.getDirection() != Direction.Up) {
+            return null;
+        }
+        InductionVariable limitCheckedIV = counted.getLimitCheckedIV();
+        if (!(limitCheckedIV instanceof BasicInductionVariable) || !limitCheckedIV.isConstantStride() || limitCheckedIV.constantStride() != 1) {
+            return null;
+        }
+        ValuePhiNode iv = ((BasicInductionVariable) limitCheckedIV).valueNode();
+        if (iv.getStackKind() != JavaKind.Int || loopBegin.phis().count() != 1 || loopBegin.loopEnds().count() != 1 || loopBegin.loopExits().count() != 2) {
+            return null;
+        }
+
+        /* Apart from control flow, the loop may only contain the load of the scanned element. */
+        LoadIndexedNode load = null;
+        IfNode matchTest = null;
+        for (FixedNode node : loop.whole().nodes().filter(FixedNode.class)) {
+            if (node instanceof LoadIndexedNode && load == null) {
+                load = (LoadIndexedNode) node;
+            } else if (node instanceof IfNode && node != counted.getLimitTest() && matchTest == null) {
+                matchTest = (IfNode) node;
+            } else if (!(node == loopBegin || node == counted.getLimitTest() || node instanceof LoopEndNode || node instanceof LoopExitNode || node instanceof BeginNode)) {
+                return null;
+            }
+        }
+        if (load == null || matchTest == null || load.index() != iv || !loop.isOutsideLoop(load.array())) {
+            return null;
+        }
+        JavaKind kind = load.elementKind();
+        if (kind != JavaKind.Byte && kind != JavaKind.Char) {
+            return null;
+        }
+
+        /* The element must be compared with a loop invariant, and the loop exited on equality. */
+        if (!(matchTest.condition() instanceof IntegerEqualsNode) || !(matchTest.trueSuccessor() instanceof LoopExitNode) || matchTest.falseSuccessor() instanceof LoopExitNode) {
+            return null;
+        }
+        IntegerEqualsNode equals = (IntegerEqualsNode) matchTest.condition();
+        ValueNode searchValue;
+        if (equals.getX() == load) {
+            searchValue = equals.getY();
+        } else if (equals.getY() == load) {
+            searchValue = equals.getX();
+        } else {
+            return null;
+        }
+        if (!loop.isOutsideLoop(searchValue) || !fitsInElement(searchValue.stamp(NodeView.DEFAULT), kind)) {
+            return null;
+        }
+        return new ArrayScan(loopBegin, iv, counted.getLimit(), load, searchValue);
+    }
+
+    /**
+     * The vector search compares only the bits of the element kind, so the search value must not
+     * have any other bits set.
+     */
+    private static boolean fitsInElement(Stamp stamp, JavaKind kind) {
+        if (!(stamp instanceof IntegerStamp)) {
+            return false;
+        }
+        IntegerStamp integerStamp = (IntegerStamp) stamp;
+        if (kind == JavaKind.Byte) {
+            return integerStamp.lowerBound() >= Byte.MIN_VALUE && integerStamp.upperBound() <= Byte.MAX_VALUE;
+        } else {
+            return integerStamp.lowerBound() >= Character.MIN_VALUE && integerStamp.upperBound() <= Character.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Inserts the following code before the loop and uses {@code start} as the new start value of
+     * the induction variable:
+     *
+     * <pre>
+     * if (a != null && from |<| to && !(a.length |<| to)) {
+     *     index = indexOf(a, to, from, c);
+     *     start = index < 0 ? to : index;
+     * } else {
+     *     start = from;
+     * }
+     * </pre>
+     */
+    private static void vectorize(StructuredGraph graph, ArrayScan scan) {
+        LoopBeginNode loopBegin = scan.loopBegin;
+        AbstractEndNode entry = loopBegin.forwardEnd();
+        FixedWithNextNode predecessor = (FixedWithNextNode) entry.predecessor();
+        ValueNode array = scan.load.array();
+        ValueNode from = scan.iv.valueAt(0);
+        ValueNode to = scan.limit;
+        JavaKind kind = scan.load.elementKind();
+        BranchProbabilityData likely = BranchProbabilityData.injected(BranchProbabilityNode.LIKELY_PROBABILITY);
+
+        MergeNode merge = graph.add(new MergeNode());
+        List<ValueNode> startValues = new ArrayList<>();
+
+        /* Vectorized search. */
+        ArrayLengthNode length = graph.add(new ArrayLengthNode(array));
+        ArrayIndexOfNode indexOf = graph.add(new ArrayIndexOfNode(kind, kind, false, array, to, from, scan.searchValue));
+        EndNode vectorEnd = graph.add(new EndNode());
+        indexOf.setNext(vectorEnd);
+        merge.addForwardEnd(vectorEnd);
+        LogicNode notFound = graph.addOrUniqueWithInputs(IntegerLessThanNode.create(indexOf, ConstantNode.forInt(0, graph), NodeView.DEFAULT));
+        startValues.add(graph.addOrUniqueWithInputs(ConditionalNode.create(notFound, to, indexOf, NodeView.DEFAULT)));
+
+        /* Scalar loop from the original start. */
+        EndNode scalarEnd = graph.add(new EndNode());
+        merge.addForwardEnd(scalarEnd);
+        startValues.add(from);
+
+        LogicNode inRange = graph.addOrUniqueWithInputs(IntegerBelowNode.create(from, to, NodeView.DEFAULT));
+        /*
+         * Both comparisons are unsigned: to |<=| a.length implies 0 <= to, and with from |<| to
+         * this gives 0 <= from < to <= a.length.
+         */
+        LogicNode lengthTooShort = graph.addOrUniqueWithInputs(IntegerBelowNode.create(length, to, NodeView.DEFAULT));
+        LogicNode useVector = graph.addOrUniqueWithInputs(LogicNode.and(inRange, false, lengthTooShort, true, likely));
+        IfNode rangeCheck = graph.add(new IfNode(useVector, BeginNode.begin(indexOf), BeginNode.begin(scalarEnd), likely));
+        length.setNext(rangeCheck);
+        FixedNode vectorPath = length;
+
+        if (!StampTool.isPointerNonNull(array)) {
+            EndNode nullEnd = graph.add(new EndNode());
+            merge.addForwardEnd(nullEnd);
+            startValues.add(from);
+            LogicNode isNull = graph.addOrUniqueWithInputs(IsNullNode.create(array));
+            vectorPath = graph.add(new IfNode(isNull, BeginNode.begin(nullEnd), BeginNode.begin(length), BranchProbabilityData.injected(BranchProbabilityNode.NOT_LIKELY_PROBABILITY)));
+        }
+
+        predecessor.setNext(null);
+        merge.setNext(entry);
+        predecessor.setNext(vectorPath);
+
+        ValuePhiNode start = graph.addWithoutUnique(new ValuePhiNode(StampFactory.forKind(JavaKind.Int), merge, startValues.toArray(new ValueNode[0])));
+        scan.iv.setValueAt(0, start);
+    }
+}
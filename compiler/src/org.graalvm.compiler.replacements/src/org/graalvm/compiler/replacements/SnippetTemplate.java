@@ -42,9 +42,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Formattable;
 import java.util.Formatter;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
@@ -578,7 +578,7 @@ public class SnippetTemplate {
         protected final SnippetReflectionProvider snippetReflection;
         protected final Iterable<DebugHandlersFactory> factories;
         protected final TargetDescription target;
-        private final Map<CacheKey, SnippetTemplate> templates;
+        private final TemplateCache templates;
 
         protected AbstractTemplates(OptionValues options, Iterable<DebugHandlersFactory> factories, Providers providers, SnippetReflectionProvider snippetReflection, TargetDescription target) {
             this.options = options;
@@ -589,7 +589,7 @@ public class SnippetTemplate {
             this.factories = factories;
             if (Options.UseSnippetTemplateCache.getValue(options)) {
                 int size = Options.MaxTemplatesPerSnippet.getValue(options);
-                this.templates = Collections.synchronizedMap(new LRUCache<>(size, size));
+                this.templates = new TemplateCache(size);
             } else {
                 this.templates = null;
             }
@@ -696,18 +696,60 @@ public class SnippetTemplate {
         }
     }
 
-    private static final class LRUCache<K, V> extends LinkedHashMap<K, V> {
-        private static final long serialVersionUID = 1L;
+    /**
+     * A bounded cache of {@link SnippetTemplate}s that compiler threads can read without locking.
+     * Eviction approximates LRU with a second-chance (clock) policy: templates are evicted in
+     * insertion order unless they were used since they were last considered for eviction.
+     */
+    private static final class TemplateCache {
+
+        private static final class Entry {
+            final SnippetTemplate template;
+            volatile boolean referenced;
+
+            Entry(SnippetTemplate template) {
+                this.template = template;
+            }
+        }
+
         private final int maxCacheSize;
+        private final ConcurrentHashMap<CacheKey, Entry> entries;
+        private final ConcurrentLinkedQueue<CacheKey> evictionQueue = new ConcurrentLinkedQueue<>();
 
-        LRUCache(int initialCapacity, int maxCacheSize) {
-            super(initialCapacity, 0.75F, true);
+        TemplateCache(int maxCacheSize) {
             this.maxCacheSize = maxCacheSize;
+            this.entries = new ConcurrentHashMap<>(maxCacheSize);
         }
 
-        @Override
-        protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
-            return size() > maxCacheSize;
+        SnippetTemplate get(CacheKey key) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry.template;
+        }
+
+        void put(CacheKey key, SnippetTemplate template) {
+            if (entries.put(key, new Entry(template)) == null) {
+                evictionQueue.add(key);
+                // bound the attempts so that concurrent gets cannot keep this loop spinning
+                for (int attempts = 2 * maxCacheSize; entries.size() > maxCacheSize && attempts > 0; attempts--) {
+                    CacheKey eldest = evictionQueue.poll();
+                    if (eldest == null) {
+                        break;
+                    }
+                    Entry entry = entries.get(eldest);
+                    if (entry != null && entry.referenced) {
+                        entry.referenced = false;
+                        evictionQueue.add(eldest);
+                    } else {
+                        entries.remove(eldest);
+                    }
+                }
+            }
         }
     }
 
@@ -321,6 +321,7 @@ def svm_gate_body(args, tasks):
                 helloworld(['--output-path', svmbuild_dir(), '--shared'])  # Build and run helloworld as shared library
                 cinterfacetutorial([])
                 clinittest([])
+                parsinghintstest([])
 
     with Task('image demos debuginfo', tasks, tags=[GraalTags.helloworld_debug]) as t:
         if t:
@@ -1155,6 +1156,28 @@ def clinittest(args):
     native_image_context_run(build_and_test_clinittest_image, args)
 
 
+@mx.command(suite.name, 'parsinghintstest', 'Builds an image with stale analysis parsing hints')
+def parsinghintstest(args):
+    def build_and_test_parsinghintstest_image(native_image, args=None):
+        args = [] if args is None else args
+        test_cp = classpath('com.oracle.svm.test')
+        build_dir = join(svmbuild_dir(), 'parsinghintstest')
+
+        # clean / create output directory
+        if exists(build_dir):
+            remove_tree(build_dir)
+        mkpath(build_dir)
+
+        # Build and run the example. The feature writes the hints file before the analysis starts.
+        native_image(
+            ['-H:Path=' + build_dir, '-cp', test_cp, '-H:Class=com.oracle.svm.test.parsinghints.TestAnalysisParsingHints',
+             '-H:Features=com.oracle.svm.test.parsinghints.TestAnalysisParsingHintsFeature',
+             '-H:AnalysisParsingHintsFile=' + join(build_dir, 'parsing-hints.txt'), '-H:Name=parsinghintstest', '-H:+ReportExceptionStackTraces'] + args)
+        mx.run([join(build_dir, 'parsinghintstest')])
+
+    native_image_context_run(build_and_test_parsinghintstest_image, args)
+
+
 class SubstrateJvmFuncsFallbacksBuilder(mx.Project):
     def __init__(self, suite, name, deps, workingSets, theLicense, **kwArgs):
         mx.Project.__init__(self, suite, name, "", [], deps, workingSets, suite.dir, theLicense, **kwArgs)
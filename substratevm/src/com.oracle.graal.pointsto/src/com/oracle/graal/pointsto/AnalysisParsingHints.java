@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.pointsto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugHandlersFactory;
+import org.graalvm.compiler.options.OptionValues;
+
+import com.oracle.graal.pointsto.api.PointstoOptions;
+import com.oracle.graal.pointsto.meta.AnalysisMethod;
+import com.oracle.graal.pointsto.meta.AnalysisType;
+import com.oracle.graal.pointsto.meta.AnalysisUniverse;
+import com.oracle.graal.pointsto.util.CompletionExecutor.DebugContextRunnable;
+
+/**
+ * Hints from a previous analysis run about which methods were parsed, keyed by a hash of the class
+ * file of their declaring class. When the first method of a class is parsed, the methods of that
+ * class that were parsed in the previous run are parsed ahead of time by other analysis threads.
+ * The hints are only used for classes whose class file is unchanged, since a changed class can
+ * have a completely different set of reachable methods.
+ *
+ * Parsing a method does not make it reachable. But graph builder plugins and parsing hooks can
+ * register elements with the analysis or the image while a method is parsed, e.g., allocated
+ * types, reflection metadata or unsafe accessed fields. Parsing also decides whether the classes
+ * that the method references are initialized at image build time, which can run their class
+ * initializers. A method parsed ahead of time need not be reachable in this run, so such side
+ * effects would make the image differ from a build without hints. They therefore call
+ * {@link #beforeParsingSideEffect()}, which abandons a parse ahead of time. The method is then
+ * parsed again, with its side effects, if the analysis needs it. So stale hints only cost parsing
+ * time and do not change the analysis result.
+ */
+public final class AnalysisParsingHints {
+
+    /** Set while the current thread parses a method ahead of time. */
+    private static final ThreadLocal<Boolean> parsingAheadOfTime = new ThreadLocal<>();
+
+    private final BigBang bb;
+    private final Path file;
+    /** Parsed methods of the previous run, by class name. */
+    private final Map<String, ClassHints> hints;
+    private final Map<AnalysisType, Boolean> prefetchedTypes = new ConcurrentHashMap<>();
+    private final AtomicLong numPrefetchedMethods = new AtomicLong();
+    private final AtomicLong numAbandonedPrefetches = new AtomicLong();
+    private final AtomicLong numFailedPrefetches = new AtomicLong();
+
+    /**
+     * Thrown to abandon a parse ahead of time that would register something with the analysis or
+     * the image.
+     */
+    private static final class AbandonedPrefetchException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        AbandonedPrefetchException() {
+            super("parsing ahead of time abandoned because of a side effect");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    private static final class ClassHints {
+        final long classFileHash;
+        final Set<String> methods = new HashSet<>();
+
+        ClassHints(long classFileHash) {
+            this.classFileHash = classFileHash;
+        }
+    }
+
+    private AnalysisParsingHints(BigBang bb, Path file, Map<String, ClassHints> hints) {
+        this.bb = bb;
+        this.file = file;
+        this.hints = hints;
+    }
+
+    /**
+     * Reads the hints from the file specified with {@link PointstoOptions#AnalysisParsingHintsFile},
+     * or returns null if the option is not set.
+     */
+    static AnalysisParsingHints create(BigBang bb) {
+        String fileName = PointstoOptions.AnalysisParsingHintsFile.getValue(bb.getOptions());
+        if (fileName.isEmpty()) {
+            return null;
+        }
+        Path file = Paths.get(fileName);
+        Map<String, ClassHints> hints = new HashMap<>();
+        if (Files.exists(file)) {
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    String[] parts = line.split("\t");
+                    if (parts.length != 3) {
+                        continue;
+                    }
+                    long hash = Long.parseUnsignedLong(parts[1], 16);
+                    hints.computeIfAbsent(parts[0], k -> new ClassHints(hash)).methods.add(parts[2]);
+                }
+            } catch (IOException | NumberFormatException e) {
+                /* The hints are only an optimization, so a broken file is just ignored. */
+                hints.clear();
+            }
+        }
+        return new AnalysisParsingHints(bb, file, hints);
+    }
+
+    /** Called when the method is parsed because the analysis found it to be invoked. */
+    public void methodParsed(AnalysisMethod method) {
+        AnalysisType type = method.getDeclaringClass();
+        if (prefetchedTypes.putIfAbsent(type, Boolean.TRUE) != null) {
+            return;
+        }
+        ClassHints classHints = hints.get(type.toJavaName(true));
+        if (classHints == null || classHints.classFileHash != classFileHash(type)) {
+            return;
+        }
+        prefetch(type.getDeclaredConstructors(), classHints);
+        prefetch(type.getDeclaredMethods(), classHints);
+        AnalysisMethod classInitializer = type.getClassInitializer();
+        if (classInitializer != null) {
+            prefetch(new AnalysisMethod[]{classInitializer}, classHints);
+        }
+    }
+
+    /**
+     * Must be called by graph builder plugins and parsing hooks before they register anything with
+     * the analysis or the image. If the current thread parses a method ahead of time, the parse is
+     * abandoned by throwing an exception, and the method is left unparsed.
+     */
+    public static void beforeParsingSideEffect() {
+        if (parsingAheadOfTime.get() != null) {
+            throw new AbandonedPrefetchException();
+        }
+    }
+
+    /**
+     * Returns true if parsing failed with {@code ex} because a parse ahead of time was abandoned.
+     * Parsing errors can wrap the original exception, so the causes are checked too.
+     */
+    public static boolean isAbandonedPrefetch(Throwable ex) {
+        for (Throwable cur = ex; cur != null; cur = cur.getCause()) {
+            if (cur instanceof AbandonedPrefetchException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void prefetch(AnalysisMethod[] methods, ClassHints classHints) {
+        for (AnalysisMethod method : methods) {
+            if (classHints.methods.contains(methodKey(method))) {
+                numPrefetchedMethods.incrementAndGet();
+                bb.postTask(new DebugContextRunnable() {
+                    @Override
+                    public void run(DebugContext ignore) {
+                        parsingAheadOfTime.set(Boolean.TRUE);
+                        try {
+                            method.ensureGraphParsed(bb);
+                        } catch (VirtualMachineError ex) {
+                            throw ex;
+                        } catch (Throwable ex) {
+                            if (isAbandonedPrefetch(ex)) {
+                                numAbandonedPrefetches.incrementAndGet();
+                            } else {
+                                /*
+                                 * The method stores the parsing error and throws it again when the
+                                 * analysis needs the method. A method that is not needed must not
+                                 * fail the build, as it would not have been parsed without hints.
+                                 */
+                                numFailedPrefetches.incrementAndGet();
+                            }
+                        } finally {
+                            parsingAheadOfTime.remove();
+                        }
+                    }
+
+                    @Override
+                    public DebugContext getDebug(OptionValues opts, List<DebugHandlersFactory> factories) {
+                        return DebugContext.disabled(opts);
+                    }
+                });
+            }
+        }
+    }
+
+    /** Writes the methods parsed by this analysis run, to be used by the next run. */
+    public void write(AnalysisUniverse universe) throws IOException {
+        List<String> lines = new ArrayList<>();
+        Map<AnalysisType, Long> hashes = new HashMap<>();
+        for (AnalysisMethod method : universe.getMethods()) {
+            if (!method.isImplementationInvoked()) {
+                continue;
+            }
+            AnalysisType type = method.getDeclaringClass();
+            long hash = hashes.computeIfAbsent(type, AnalysisParsingHints::classFileHash);
+            if (hash != -1) {
+                lines.add(type.toJavaName(true) + "\t" + Long.toHexString(hash) + "\t" + methodKey(method));
+            }
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getNumPrefetchedMethods() {
+        return numPrefetchedMethods.get();
+    }
+
+    /** Returns the number of parses ahead of time that were abandoned because of side effects. */
+    public long getNumAbandonedPrefetches() {
+        return numAbandonedPrefetches.get();
+    }
+
+    /** Returns the number of parses ahead of time that failed with a parsing error. */
+    public long getNumFailedPrefetches() {
+        return numFailedPrefetches.get();
+    }
+
+    private static String methodKey(AnalysisMethod method) {
+        return method.getName() + method.getSignature().toMethodDescriptor();
+    }
+
+    /**
+     * Returns a hash of the class file of the type, or -1 if there is no class file, e.g., for
+     * classes that are defined at run time of the image generator.
+     */
+    private static long classFileHash(AnalysisType type) {
+        Class<?> clazz = type.getJavaClass();
+        if (clazz == null || clazz.isArray() || clazz.isPrimitive()) {
+            return -1;
+        }
+        try (InputStream in = clazz.getResourceAsStream("/" + clazz.getName().replace('.', '/') + ".class")) {
+            if (in == null) {
+                return -1;
+            }
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+            }
+            return crc.getValue();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -75,6 +75,7 @@ import com.oracle.graal.pointsto.meta.AnalysisUniverse;
 import com.oracle.graal.pointsto.meta.HostedProviders;
 import com.oracle.graal.pointsto.typestate.PointsToStats;
 import com.oracle.graal.pointsto.typestate.TypeState;
+import com.oracle.graal.pointsto.typestate.TypeStateInterner;
 import com.oracle.graal.pointsto.util.CompletionExecutor;
 import com.oracle.graal.pointsto.util.CompletionExecutor.DebugContextRunnable;
 import com.oracle.graal.pointsto.util.Timer;
@@ -112,6 +113,9 @@ public abstract class BigBang {
      * Processing queue.
      */
     private final CompletionExecutor executor;
+    private final AnalysisParsingHints parsingHints;
+    /** Shares equal type states between type flows, null if type states are not interned. */
+    private TypeStateInterner typeStateInterner;
     private final Runnable heartbeatCallback;
 
     private ConcurrentMap<AbstractUnsafeLoadTypeFlow, Boolean> unsafeLoads;
@@ -167,6 +171,8 @@ public abstract class BigBang {
         executor = new CompletionExecutor(this, executorService, heartbeatCallback);
         executor.init(timing);
         this.heartbeatCallback = heartbeatCallback;
+        this.parsingHints = AnalysisParsingHints.create(this);
+        this.typeStateInterner = PointstoOptions.InternTypeStates.getValue(options) ? new TypeStateInterner() : null;
 
         heapScanningPolicy = PointstoOptions.ExhaustiveHeapScan.getValue(options)
                         ? HeapScanningPolicy.scanAll()
@@ -278,6 +284,8 @@ public abstract class BigBang {
         unsafeStores = null;
         scannedObjects = null;
 
+        typeStateInterner = null;
+
         ConstantObjectsProfiler.constantTypes.clear();
 
         universe.getTypes().forEach(AnalysisType::cleanupAfterAnalysis);
@@ -516,6 +524,17 @@ public abstract class BigBang {
         return executor;
     }
 
+    /** Returns the canonical instance of a type state that is going to be stored in a type flow. */
+    public TypeState internTypeState(TypeState state) {
+        TypeStateInterner interner = typeStateInterner;
+        return interner != null ? interner.intern(state) : state;
+    }
+
+    /** Returns the parsing hints from a previous analysis run, or null if they are not used. */
+    public AnalysisParsingHints getParsingHints() {
+        return parsingHints;
+    }
+
     public void checkUserLimitations() {
     }
 
@@ -116,6 +116,12 @@ public class PointstoOptions {
     @Option(help = "Report unresolved elements as errors.")//
     public static final OptionKey<Boolean> UnresolvedIsError = new OptionKey<>(true);
 
+    @Option(help = "File with the methods parsed by a previous analysis run. The methods of unchanged classes are parsed ahead of time, and the file is updated after the analysis.")//
+    public static final OptionKey<String> AnalysisParsingHintsFile = new OptionKey<>("");
+
+    @Option(help = "Share identical type states between type flows to reduce the memory footprint of the analysis.")//
+    public static final OptionKey<Boolean> InternTypeStates = new OptionKey<>(false);
+
     @Option(help = "Report analysis statistics.")//
     public static final OptionKey<Boolean> PrintPointsToStatistics = new OptionKey<>(false);
 
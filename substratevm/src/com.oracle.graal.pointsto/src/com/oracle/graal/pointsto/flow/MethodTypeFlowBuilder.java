@@ -160,6 +160,9 @@ public class MethodTypeFlowBuilder {
 
     @SuppressWarnings("try")
     private boolean parse() {
+        if (bb.getParsingHints() != null) {
+            bb.getParsingHints().methodParsed(method);
+        }
         AnalysisParsedGraph analysisParsedGraph = method.ensureGraphParsed(bb);
         if (analysisParsedGraph.isIntrinsic()) {
             method.registerAsIntrinsicMethod();
@@ -287,11 +287,20 @@ public abstract class TypeFlow<T> {
         TypeState filteredAdd;
         do {
             before = state;
+            if (TypeState.isSubset(add, before)) {
+                /*
+                 * Filtering can only remove objects, so the union cannot change the state. This
+                 * avoids allocating the filtered and the union state, which is the common case once
+                 * the analysis is close to the fixed point.
+                 */
+                return false;
+            }
             filteredAdd = filter(bb, add);
             after = TypeState.forUnion(bb, before, filteredAdd);
             if (after.equals(before)) {
                 return false;
             }
+            after = bb.internTypeState(after);
         } while (!STATE_UPDATER.compareAndSet(this, before, after));
 
         PointsToStats.registerTypeFlowSuccessfulUpdate(bb, this, add);
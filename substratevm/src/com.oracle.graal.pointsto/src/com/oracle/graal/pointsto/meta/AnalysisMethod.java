@@ -46,6 +46,7 @@ import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugin;
 import org.graalvm.util.GuardedAnnotationAccess;
 
+import com.oracle.graal.pointsto.AnalysisParsingHints;
 import com.oracle.graal.pointsto.BigBang;
 import com.oracle.graal.pointsto.api.PointstoOptions;
 import com.oracle.graal.pointsto.constraints.UnsupportedFeatureException;
@@ -609,7 +610,12 @@ public class AnalysisMethod implements WrappedJavaMethod, GraphProvider, Origina
                     return graph;
 
                 } catch (Throwable ex) {
-                    parsedGraphCacheState.set(ex);
+                    if (AnalysisParsingHints.isAbandonedPrefetch(ex)) {
+                        /* Leave the method unparsed, so that it is parsed again when needed. */
+                        parsedGraphCacheState.set(GRAPH_CACHE_UNPARSED);
+                    } else {
+                        parsedGraphCacheState.set(ex);
+                    }
                     throw ex;
 
                 } finally {
@@ -55,6 +55,8 @@ public class MultiTypeState extends TypeState {
     protected final boolean canBeNull;
     /** Has this type state been merged with the all-instantiated type state? */
     protected boolean merged;
+    /** Cached hash code, computed lazily since it requires a pass over the objects. */
+    private int hashCode;
 
     /** Creates a new type state using the provided types bit set and objects. */
     MultiTypeState(BigBang bb, boolean canBeNull, int properties, BitSet typesBitSet, AnalysisObject... objects) {
@@ -342,9 +344,14 @@ public class MultiTypeState extends TypeState {
 
     @Override
     public int hashCode() {
-        int result = 1;
-        result = 31 * result + Arrays.hashCode(objects);
-        result = 31 * result + (canBeNull ? 1 : 0);
+        int result = hashCode;
+        if (result == 0) {
+            result = 1;
+            result = 31 * result + Arrays.hashCode(objects);
+            result = 31 * result + (canBeNull ? 1 : 0);
+            /* Races are not a problem because every thread computes the same value. */
+            hashCode = result;
+        }
         return result;
     }
 
@@ -465,6 +465,27 @@ public abstract class TypeState {
         }
     }
 
+    /**
+     * Returns true if all objects of s1 are contained in s2 and s2 can be null if s1 can be null,
+     * i.e., if the union of the two states is s2. The check does not allocate, so it can be used as
+     * a fast path before computing a union.
+     */
+    public static boolean isSubset(TypeState s1, TypeState s2) {
+        if (s1 == s2) {
+            return true;
+        } else if (s1.canBeNull() && !s2.canBeNull()) {
+            return false;
+        } else if (s1.objectsCount() > s2.objectsCount()) {
+            return false;
+        }
+        for (AnalysisObject object : s1.objects()) {
+            if (!s2.containsObject(object)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /* Implementation of union. */
 
     private static TypeState doUnion(BigBang bb, SingleTypeState s1, SingleTypeState s2) {
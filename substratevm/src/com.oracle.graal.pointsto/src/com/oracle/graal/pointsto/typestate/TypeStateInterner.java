@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.pointsto.typestate;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonicalizes type states so that type flows with equal states share one instance. Only
+ * {@link MultiTypeState}s are interned: they are the ones that are large and duplicated across many
+ * flows, e.g., the states of parameters and fields whose values flow from the same sources.
+ *
+ * The interned states are only weakly referenced. A type flow goes through many intermediate
+ * states before the analysis reaches the fixed point, and holding on to them would increase the
+ * memory footprint instead of reducing it.
+ */
+public final class TypeStateInterner {
+
+    private final ConcurrentHashMap<Key, Key> states = new ConcurrentHashMap<>();
+    private final ReferenceQueue<TypeState> staleKeys = new ReferenceQueue<>();
+
+    private static final class Key extends WeakReference<TypeState> {
+        private final int hash;
+
+        Key(TypeState state, ReferenceQueue<TypeState> queue) {
+            super(state, queue);
+            this.hash = state.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key) || hash != ((Key) obj).hash) {
+                return false;
+            }
+            TypeState state = get();
+            return state != null && state.equals(((Key) obj).get());
+        }
+    }
+
+    /** Returns the canonical instance of a type state that is going to be stored in a type flow. */
+    public TypeState intern(TypeState state) {
+        if (!(state instanceof MultiTypeState)) {
+            return state;
+        }
+        expungeStaleKeys();
+
+        Key key = new Key(state, staleKeys);
+        while (true) {
+            Key existing = states.putIfAbsent(key, key);
+            if (existing == null) {
+                return state;
+            }
+            TypeState existingState = existing.get();
+            if (existingState != null) {
+                return existingState;
+            }
+            /* The existing state was collected after the lookup, remove its key and retry. */
+            states.remove(existing, existing);
+        }
+    }
+
+    private void expungeStaleKeys() {
+        Object key;
+        while ((key = staleKeys.poll()) != null) {
+            /* A cleared key is only equal to itself, so this removes exactly that entry. */
+            states.remove(key, key);
+        }
+    }
+}
@@ -33,12 +33,14 @@ import org.graalvm.nativeimage.Platform;
 import org.graalvm.nativeimage.Platforms;
 import org.graalvm.nativeimage.hosted.Feature.FeatureAccess;
 import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
 
 import com.oracle.svm.core.SubstrateOptions;
 import com.oracle.svm.core.log.Log;
 import com.oracle.svm.core.option.HostedOptionKey;
 import com.oracle.svm.core.option.RuntimeOptionKey;
 import com.oracle.svm.core.util.TimeUtils;
+import com.oracle.svm.core.util.UnsignedUtils;
 import com.oracle.svm.core.util.UserError;
 
 /** A collection policy decides when to collect incrementally or completely. */
@@ -49,6 +51,12 @@ public abstract class CollectionPolicy {
 
         @Option(help = "Percentage of total collection time that should be spent on young generation collections.")//
         public static final RuntimeOptionKey<Integer> PercentTimeInIncrementalCollection = new RuntimeOptionKey<>(50);
+
+        @Option(help = "The pause time goal of the adaptive collection policy for incremental collections, in milliseconds. 0 implies no pause time goal.")//
+        public static final RuntimeOptionKey<Integer> MaxGCPauseMillis = new RuntimeOptionKey<>(0);
+
+        @Option(help = "The throughput goal of the adaptive collection policy: at most 1 / (1 + GCTimeRatio) of the time should be spent in collections.")//
+        public static final RuntimeOptionKey<Integer> GCTimeRatio = new RuntimeOptionKey<>(19);
     }
 
     @Platforms(Platform.HOSTED_ONLY.class)
@@ -90,6 +98,22 @@ public abstract class CollectionPolicy {
     CollectionPolicy() {
     }
 
+    /**
+     * Called at the end of every collection, after the {@linkplain GCAccounting accounting} was
+     * updated, so that a policy can adapt to the last collection.
+     */
+    public void onCollectionEnd(@SuppressWarnings("unused") boolean completeCollection) {
+    }
+
+    /**
+     * Returns the size that the young generation can reach before an incremental collection is
+     * triggered. It must not exceed {@code maxYoungSize}, the current
+     * {@linkplain HeapPolicy#getMaximumYoungGenerationSize() maximum young generation size}.
+     */
+    public UnsignedWord getYoungGenerationSize(UnsignedWord maxYoungSize) {
+        return maxYoungSize;
+    }
+
     public abstract void nameToLog(Log log);
 
     public abstract String getName();
@@ -187,9 +211,9 @@ public abstract class CollectionPolicy {
          * Estimates the heap size at the next incremental collection assuming that the whole
          * current young generation gets promoted.
          */
-        private static UnsignedWord estimateUsedHeapAtNextIncrementalCollection() {
+        private UnsignedWord estimateUsedHeapAtNextIncrementalCollection() {
             UnsignedWord currentYoungBytes = HeapImpl.getHeapImpl().getYoungGeneration().getChunkBytes();
-            UnsignedWord maxYoungBytes = HeapPolicy.getMaximumYoungGenerationSize();
+            UnsignedWord maxYoungBytes = getYoungGenerationSize(HeapPolicy.getMaximumYoungGenerationSize());
             UnsignedWord oldBytes = getAccounting().getOldGenerationAfterChunkBytes();
             return currentYoungBytes.add(maxYoungBytes).add(oldBytes);
         }
@@ -215,4 +239,97 @@ public abstract class CollectionPolicy {
             return "by space and time";
         }
     }
+
+    /**
+     * A collection policy that decides like {@link BySpaceAndTime} when to collect completely, and
+     * that resizes the young generation after every incremental collection to meet the goals set by
+     * {@link Options#MaxGCPauseMillis} and {@link Options#GCTimeRatio}: a smaller young generation
+     * has shorter pauses, a larger one spends less time in collections. When the collections take
+     * much less time than permitted on average, the young generation is shrunk slowly to reduce the
+     * footprint. The size is kept by the policy and never exceeds the current
+     * {@linkplain HeapPolicy#getMaximumYoungGenerationSize() maximum young generation size}.
+     */
+    public static class Adaptive extends BySpaceAndTime {
+        private static final int GROW_PERCENT = 20;
+        private static final int SHRINK_PERCENT = 10;
+        private static final int FOOTPRINT_SHRINK_PERCENT = 2;
+        /** Weight of the last collection in the average fraction of time spent in collections. */
+        private static final double GC_TIME_FRACTION_WEIGHT = 0.25;
+
+        /** The adapted young generation size, or zero if it was not adapted yet. */
+        private UnsignedWord youngSize = WordFactory.zero();
+        /** The exponential average of the fraction of time spent in incremental collections. */
+        private double avgGCTimeFraction = -1;
+        private long lastCollectionEndNanos;
+        private long lastIncrementalNanos;
+        private long lastCompleteNanos;
+
+        @Override
+        public UnsignedWord getYoungGenerationSize(UnsignedWord maxYoungSize) {
+            if (youngSize.equal(0) || youngSize.aboveThan(maxYoungSize)) {
+                return maxYoungSize;
+            }
+            return youngSize;
+        }
+
+        @Override
+        public void onCollectionEnd(boolean completeCollection) {
+            long nowNanos = System.nanoTime();
+            long incrementalNanos = getAccounting().getIncrementalCollectionTotalNanos();
+            long completeNanos = getAccounting().getCompleteCollectionTotalNanos();
+            long pauseNanos = (incrementalNanos - lastIncrementalNanos) + (completeNanos - lastCompleteNanos);
+            long intervalNanos = (lastCollectionEndNanos == 0L ? 0L : nowNanos - lastCollectionEndNanos);
+            lastIncrementalNanos = incrementalNanos;
+            lastCompleteNanos = completeNanos;
+            lastCollectionEndNanos = nowNanos;
+            if (completeCollection || intervalNanos <= 0L) {
+                /* The duration of complete collections does not depend on the young generation. */
+                return;
+            }
+            update(pauseNanos, intervalNanos, HeapPolicy.getMaximumYoungGenerationSize());
+        }
+
+        /**
+         * Adapts the young generation size to an incremental collection that paused for
+         * {@code pauseNanos} and ended {@code intervalNanos} after the previous collection.
+         * {@code maxYoungSize} is read again for every collection, so that changes of the maximum
+         * young generation size take effect.
+         */
+        public void update(long pauseNanos, long intervalNanos, UnsignedWord maxYoungSize) {
+            double gcTimeFraction = (double) pauseNanos / intervalNanos;
+            if (avgGCTimeFraction < 0) {
+                avgGCTimeFraction = gcTimeFraction;
+            } else {
+                avgGCTimeFraction = (1 - GC_TIME_FRACTION_WEIGHT) * avgGCTimeFraction + GC_TIME_FRACTION_WEIGHT * gcTimeFraction;
+            }
+
+            UnsignedWord currentSize = getYoungGenerationSize(maxYoungSize);
+            UnsignedWord chunkSize = HeapPolicy.getAlignedHeapChunkSize();
+            UnsignedWord newSize;
+            long maxPauseNanos = TimeUtils.millisToNanos(Options.MaxGCPauseMillis.getValue());
+            double goalGCTimeFraction = 1.0 / (1 + Options.GCTimeRatio.getValue());
+            if (maxPauseNanos > 0L && pauseNanos > maxPauseNanos) {
+                newSize = UnsignedUtils.roundDown(currentSize.subtract(currentSize.unsignedDivide(100).multiply(SHRINK_PERCENT)), chunkSize);
+            } else if (avgGCTimeFraction > goalGCTimeFraction) {
+                /* Round up so that a young generation of a single chunk can grow too. */
+                newSize = UnsignedUtils.roundUp(currentSize.add(currentSize.unsignedDivide(100).multiply(GROW_PERCENT)), chunkSize);
+            } else if (avgGCTimeFraction < goalGCTimeFraction / 2) {
+                newSize = UnsignedUtils.roundDown(currentSize.subtract(currentSize.unsignedDivide(100).multiply(FOOTPRINT_SHRINK_PERCENT)), chunkSize);
+            } else {
+                return;
+            }
+            youngSize = UnsignedUtils.max(chunkSize, UnsignedUtils.min(maxYoungSize, newSize));
+        }
+
+        @Override
+        public void nameToLog(Log log) {
+            log.string(getName()).string(": ").signed(Options.MaxGCPauseMillis.getValue()).string("ms max pause, ")
+                            .signed(Options.GCTimeRatio.getValue()).string(" GC time ratio");
+        }
+
+        @Override
+        public String getName() {
+            return "adaptive";
+        }
+    }
 }
@@ -54,6 +54,7 @@ public final class GCAccounting {
     private UnsignedWord oldChunkBytesBefore = WordFactory.zero();
     private UnsignedWord oldChunkBytesAfter = WordFactory.zero();
     private UnsignedWord lastCollectionPromotedChunkBytes = WordFactory.zero();
+    private UnsignedWord peakChunkBytes = WordFactory.zero();
 
     /*
      * Bytes allocated in Objects, as opposed to bytes of chunks. These are only maintained if
@@ -116,6 +117,17 @@ public final class GCAccounting {
         return lastCollectionPromotedChunkBytes;
     }
 
+    /** The maximum chunk bytes of all spaces during a collection, including the copies. */
+    UnsignedWord getPeakChunkBytes() {
+        return peakChunkBytes;
+    }
+
+    void notePeakChunkBytes(UnsignedWord chunkBytes) {
+        if (chunkBytes.aboveThan(peakChunkBytes)) {
+            peakChunkBytes = chunkBytes;
+        }
+    }
+
     void beforeCollection() {
         Log trace = Log.noopLog().string("[GCImpl.Accounting.beforeCollection:").newline();
         /* Gather some space statistics. */
@@ -70,6 +70,7 @@ import com.oracle.svm.core.genscavenge.remset.RememberedSet;
 import com.oracle.svm.core.heap.CodeReferenceMapDecoder;
 import com.oracle.svm.core.heap.GC;
 import com.oracle.svm.core.heap.GCCause;
+import com.oracle.svm.core.heap.GCListenerSupport;
 import com.oracle.svm.core.heap.NoAllocationVerifier;
 import com.oracle.svm.core.heap.ReferenceHandler;
 import com.oracle.svm.core.heap.ReferenceMapIndex;
@@ -168,8 +169,10 @@ public final class GCImpl implements GC {
         ThreadLocalAllocation.disableAndFlushForAllThreads();
 
         printGCBefore(cause.getName());
+        GCListenerSupport.get().beforeCollection(collectionEpoch);
         boolean outOfMemory = collectImpl(forceFullGC);
         HeapPolicy.setEdenAndYoungGenBytes(WordFactory.unsigned(0), accounting.getYoungChunkBytesAfter());
+        GCListenerSupport.get().afterCollection(collectionEpoch, cause, completeCollection);
         printGCAfter(cause.getName());
 
         finishCollection();
@@ -229,6 +232,7 @@ public final class GCImpl implements GC {
         CommittedMemoryProvider.get().afterGarbageCollection(completeCollection);
 
         accounting.afterCollection(completeCollection, timers.collection);
+        policy.onCollectionEnd(completeCollection);
         UnsignedWord maxBytes = HeapPolicy.getMaximumHeapSize();
         UnsignedWord usedBytes = getChunkBytes();
         boolean outOfMemory = usedBytes.aboveThan(maxBytes);
@@ -492,6 +496,9 @@ public final class GCImpl implements GC {
                 referenceObjectsTimer.close();
             }
 
+            /* Before the spaces are released, the heap is at its largest. */
+            accounting.notePeakChunkBytes(getChunkBytes());
+
             Timer releaseSpacesTimer = timers.releaseSpaces.open();
             try {
                 assert chunkReleaser.isEmpty();
@@ -502,6 +509,11 @@ public final class GCImpl implements GC {
             }
 
             swapSpaces();
+            if (fromDirtyRoots) {
+                HeapImpl.getHeapImpl().getYoungGeneration().computeTenuringThreshold();
+            } else {
+                HeapImpl.getHeapImpl().getOldGeneration().noteCompleteCollectionSurvivors();
+            }
         } finally {
             counters.close();
         }
@@ -541,6 +553,13 @@ public final class GCImpl implements GC {
              */
             prepareForPromotion(false);
 
+            /*
+             * Keep the chunks that survived the last complete collection in place if possible. A
+             * last-resort collection before throwing an OutOfMemoryError copies everything so that
+             * no dead objects are retained.
+             */
+            HeapImpl.getHeapImpl().getOldGeneration().retainSurvivorChunks(ReferenceObjectProcessing.getSoftReferencesAreWeak());
+
             /*
              * Make sure all chunks with pinned objects are in toSpace, and any formerly pinned
              * objects are in fromSpace.
@@ -963,8 +982,15 @@ public final class GCImpl implements GC {
         if (requestingEpoch.aboveOrEqual(getCollectionEpoch())) {
             /* No GC happened, so do not run any epilogue. */
             return;
+        }
+
+        /*
+         * Return the memory that the collection released to the operating system. This does not
+         * need any synchronization, and it is better done here than while all threads are stopped.
+         */
+        HeapImpl.getChunkProvider().freeReleasedAlignedChunks();
 
-        } else if (VMOperation.isInProgress()) {
+        if (VMOperation.isInProgress()) {
             /*
              * We are inside a VMOperation where we are not allowed to do certain things, e.g.,
              * perform a synchronization (because it can deadlock when a lock is held outside the
@@ -1193,6 +1219,7 @@ public final class GCImpl implements GC {
         log.string(prefix).string("CollectedTotalObjectBytes: ").signed(accounting.getCollectedTotalObjectBytes()).newline();
         log.string(prefix).string("AllocatedNormalChunkBytes: ").signed(allocatedChunkBytes).newline();
         log.string(prefix).string("AllocatedNormalObjectBytes: ").signed(allocatedObjectBytes).newline();
+        log.string(prefix).string("PeakChunkBytes: ").signed(accounting.getPeakChunkBytes()).newline();
 
         long incrementalNanos = accounting.getIncrementalCollectionTotalNanos();
         log.string(prefix).string("IncrementalGCCount: ").signed(accounting.getIncrementalCollectionCount()).newline();
@@ -87,12 +87,18 @@ final class GreyObjectsWalker {
     @AlwaysInline("GC performance")
     private void walkAlignedGreyObjects() {
         AlignedHeapChunk.AlignedHeader aChunk;
+        Pointer aStart;
         if (alignedHeapChunk.isNull() && alignedTop.isNull()) {
             /* If the snapshot is empty, then I have to walk from the beginning of the Space. */
             aChunk = space.getFirstAlignedHeapChunk();
+            aStart = (aChunk.isNonNull() ? AlignedHeapChunk.getObjectsStart(aChunk) : WordFactory.nullPointer());
         } else {
-            /* Otherwise walk Objects that arrived after the snapshot. */
+            /*
+             * Otherwise walk Objects that arrived after the snapshot. The Objects below the
+             * snapshot top are already black, so there is no need to visit them again.
+             */
             aChunk = alignedHeapChunk;
+            aStart = alignedTop;
         }
         /* Visit Objects in the AlignedChunks. */
         GreyToBlackObjectVisitor visitor = GCImpl.getGCImpl().getGreyToBlackObjectVisitor();
@@ -100,10 +106,11 @@ final class GreyObjectsWalker {
             AlignedHeapChunk.AlignedHeader lastChunk;
             do {
                 lastChunk = aChunk;
-                if (!AlignedHeapChunk.walkObjectsInline(aChunk, visitor)) {
+                if (!HeapChunk.walkObjectsFromInline(aChunk, aStart, visitor)) {
                     throw VMError.shouldNotReachHere();
                 }
                 aChunk = HeapChunk.getNext(aChunk);
+                aStart = (aChunk.isNonNull() ? AlignedHeapChunk.getObjectsStart(aChunk) : WordFactory.nullPointer());
             } while (aChunk.isNonNull());
 
             /* Move the scan point. */
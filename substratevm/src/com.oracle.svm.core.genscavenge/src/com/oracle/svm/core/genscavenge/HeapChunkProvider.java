@@ -24,6 +24,8 @@
  */
 package com.oracle.svm.core.genscavenge;
 
+import org.graalvm.compiler.api.replacements.Fold;
+import org.graalvm.nativeimage.CurrentIsolate;
 import org.graalvm.nativeimage.Platform;
 import org.graalvm.nativeimage.Platforms;
 import org.graalvm.word.Pointer;
@@ -34,6 +36,7 @@ import org.graalvm.word.WordFactory;
 import com.oracle.svm.core.FrameAccess;
 import com.oracle.svm.core.MemoryWalker;
 import com.oracle.svm.core.SubstrateOptions;
+import com.oracle.svm.core.SubstrateUtil;
 import com.oracle.svm.core.annotate.AlwaysInline;
 import com.oracle.svm.core.annotate.Uninterruptible;
 import com.oracle.svm.core.genscavenge.AlignedHeapChunk.AlignedHeader;
@@ -44,30 +47,44 @@ import com.oracle.svm.core.jdk.UninterruptibleUtils.AtomicUnsigned;
 import com.oracle.svm.core.log.Log;
 import com.oracle.svm.core.os.CommittedMemoryProvider;
 import com.oracle.svm.core.thread.VMThreads;
+import com.oracle.svm.core.util.VMError;
 
 /**
  * Allocates and frees the memory for aligned and unaligned heap chunks. The methods are
  * thread-safe, so no locking is necessary when calling them.
  *
  * Memory for aligned chunks is not immediately released to the OS. Up to
- * {@link HeapPolicy#getMinimumHeapSize()} chunks are saved in an unused chunk list. Memory for
- * unaligned chunks is released immediately.
+ * {@link HeapPolicy#getMinimumHeapSize()} chunks are saved in an unused chunk list. The remaining
+ * aligned chunks are released to the OS after the collection, see
+ * {@link #freeReleasedAlignedChunks()}. Memory for unaligned chunks is released immediately.
  */
 final class HeapChunkProvider {
     /**
-     * The head of the linked list of unused aligned chunks. Chunks are chained using
-     * {@link HeapChunk#getNext}.
+     * The heads of the linked lists of unused aligned chunks. Chunks are chained using
+     * {@link HeapChunk#getNext}. The unused chunks are distributed over several lists so that
+     * threads that refill their TLABs at the same time do not all compete for the same list head,
+     * see {@link HeapPolicyOptions#UnusedAlignedChunkStripes}.
      */
-    private final UninterruptibleUtils.AtomicPointer<AlignedHeader> unusedAlignedChunks = new UninterruptibleUtils.AtomicPointer<>();
+    private final UninterruptibleUtils.AtomicPointer<AlignedHeader>[] unusedAlignedChunks;
 
     /**
-     * The number of chunks in the {@link #unusedAlignedChunks} list.
+     * The number of bytes in each of the {@link #unusedAlignedChunks} lists.
      *
-     * The value is not updated atomically with respect to the {@link #unusedAlignedChunks list
-     * head}, but this is OK because we only need the number of chunks for policy code (to avoid
-     * running down the list and counting the number of chunks).
+     * The values are not updated atomically with respect to the {@link #unusedAlignedChunks list
+     * heads}, but this is OK because we only need the number of chunks for policy code (to avoid
+     * running down the lists and counting the number of chunks).
      */
-    private final AtomicUnsigned bytesInUnusedAlignedChunks = new AtomicUnsigned();
+    private final AtomicUnsigned[] bytesInUnusedAlignedChunks;
+
+    /** The list that the next chunk is pushed to. Pushing only happens during a collection. */
+    private int nextPushStripe;
+
+    /**
+     * The head of the linked list of aligned chunks that a collection no longer needs, but that
+     * were not yet returned to the operating system. Freeing this memory can take considerable time
+     * for large heaps, so it is done after the collection when the other threads are running again.
+     */
+    private final UninterruptibleUtils.AtomicPointer<AlignedHeader> releasedAlignedChunks = new UninterruptibleUtils.AtomicPointer<>();
 
     /**
      * The time of the first allocation, as the basis for computing deltas.
@@ -78,12 +95,34 @@ final class HeapChunkProvider {
     private long firstAllocationTime;
 
     @Platforms(Platform.HOSTED_ONLY.class)
+    @SuppressWarnings("unchecked")
     HeapChunkProvider() {
+        int stripes = getUnusedAlignedChunkStripes();
+        unusedAlignedChunks = new UninterruptibleUtils.AtomicPointer[stripes];
+        bytesInUnusedAlignedChunks = new AtomicUnsigned[stripes];
+        for (int i = 0; i < stripes; i++) {
+            unusedAlignedChunks[i] = new UninterruptibleUtils.AtomicPointer<>();
+            bytesInUnusedAlignedChunks[i] = new AtomicUnsigned();
+        }
+    }
+
+    @Fold
+    static int getUnusedAlignedChunkStripes() {
+        if (!SubstrateOptions.MultiThreaded.getValue()) {
+            return 1;
+        }
+        int stripes = HeapPolicyOptions.UnusedAlignedChunkStripes.getValue();
+        VMError.guarantee(stripes > 0 && SubstrateUtil.isPowerOf2(stripes), "UnusedAlignedChunkStripes must be a power of 2");
+        return stripes;
     }
 
     @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     public UnsignedWord getBytesInUnusedChunks() {
-        return bytesInUnusedAlignedChunks.get();
+        UnsignedWord result = WordFactory.zero();
+        for (int i = 0; i < bytesInUnusedAlignedChunks.length; i++) {
+            result = result.add(bytesInUnusedAlignedChunks[i].get());
+        }
+        return result;
     }
 
     @AlwaysInline("Remove all logging when noopLog is returned by this method")
@@ -130,6 +169,8 @@ final class HeapChunkProvider {
     /**
      * Releases a list of AlignedHeapChunks, either to the free list or back to the operating
      * system. This method may only be called after the chunks were already removed from the spaces.
+     * The chunks that are not kept on the free list are only freed after the collection, by
+     * {@link #freeReleasedAlignedChunks()}.
      */
     void consumeAlignedChunks(AlignedHeader firstChunk) {
         assert HeapChunk.getPrevious(firstChunk).isNull() : "prev must be null";
@@ -148,7 +189,13 @@ final class HeapChunkProvider {
             }
         }
 
-        freeAlignedChunkList(cur);
+        /* If no thread freed the chunks of the previous collection yet, do it now. */
+        freeAlignedChunkList(releasedAlignedChunks.getAndSet(cur));
+    }
+
+    /** Returns the aligned chunks that the last collection did not keep to the operating system. */
+    void freeReleasedAlignedChunks() {
+        freeAlignedChunkList(releasedAlignedChunks.getAndSet(WordFactory.nullPointer()));
     }
 
     private static void cleanAlignedChunk(AlignedHeader alignedChunk) {
@@ -159,11 +206,12 @@ final class HeapChunkProvider {
     }
 
     /**
-     * Push a chunk to the global linked list of unused chunks.
+     * Push a chunk to one of the global linked lists of unused chunks. The lists are filled in
+     * turn, so that they all contain about the same number of chunks.
      * <p>
      * This method is <em>not</em> atomic. It only runs when the VMThreads.THREAD_MUTEX is held (or
      * the virtual machine is single-threaded). However it must not be allowed to compete with pops
-     * from the global free-list, because it might cause them an ABA problem. Pushing is only used
+     * from the global free-lists, because it might cause them an ABA problem. Pushing is only used
      * during garbage collection, so making popping uninterruptible prevents simultaneous pushing
      * and popping.
      *
@@ -174,18 +222,22 @@ final class HeapChunkProvider {
         if (SubstrateOptions.MultiThreaded.getValue()) {
             VMThreads.guaranteeOwnsThreadMutex("Should hold the lock when pushing to the global list.");
         }
-        log().string("  old list top: ").hex(unusedAlignedChunks.get()).string("  list bytes ").signed(bytesInUnusedAlignedChunks.get()).newline();
+        int stripe = nextPushStripe;
+        nextPushStripe = (stripe + 1) & (unusedAlignedChunks.length - 1);
+        UninterruptibleUtils.AtomicPointer<AlignedHeader> list = unusedAlignedChunks[stripe];
+        log().string("  old list top: ").hex(list.get()).string("  list bytes ").signed(bytesInUnusedAlignedChunks[stripe].get()).newline();
 
-        HeapChunk.setNext(chunk, unusedAlignedChunks.get());
-        unusedAlignedChunks.set(chunk);
-        bytesInUnusedAlignedChunks.addAndGet(HeapPolicy.getAlignedHeapChunkSize());
+        HeapChunk.setNext(chunk, list.get());
+        list.set(chunk);
+        bytesInUnusedAlignedChunks[stripe].addAndGet(HeapPolicy.getAlignedHeapChunkSize());
 
-        log().string("  new list top: ").hex(unusedAlignedChunks.get()).string("  list bytes ").signed(bytesInUnusedAlignedChunks.get()).newline();
+        log().string("  new list top: ").hex(list.get()).string("  list bytes ").signed(bytesInUnusedAlignedChunks[stripe].get()).newline();
     }
 
     /**
-     * Pop a chunk from the global linked list of unused chunks. Returns {@code null} if the list is
-     * empty.
+     * Pop a chunk from the global linked lists of unused chunks. Returns {@code null} if all lists
+     * are empty. Each thread starts with its own preferred list, and only looks at the other lists
+     * if that one is empty.
      * <p>
      * This method uses compareAndSet to protect itself from races with competing pop operations,
      * but it is <em>not</em> safe with respect to competing pushes. Since pushes can happen during
@@ -193,27 +245,41 @@ final class HeapChunkProvider {
      * uninterruptible so it can not be interrupted by a safepoint.
      */
     private AlignedHeader popUnusedAlignedChunk() {
-        log().string("  old list top: ").hex(unusedAlignedChunks.get()).string("  list bytes ").signed(bytesInUnusedAlignedChunks.get()).newline();
+        int mask = unusedAlignedChunks.length - 1;
+        int firstStripe = getPreferredStripe() & mask;
+        for (int i = 0; i < unusedAlignedChunks.length; i++) {
+            int stripe = (firstStripe + i) & mask;
+            UninterruptibleUtils.AtomicPointer<AlignedHeader> list = unusedAlignedChunks[stripe];
+            log().string("  old list top: ").hex(list.get()).string("  list bytes ").signed(bytesInUnusedAlignedChunks[stripe].get()).newline();
+
+            AlignedHeader result = popUnusedAlignedChunkUninterruptibly(list);
+            if (result.isNonNull()) {
+                bytesInUnusedAlignedChunks[stripe].subtractAndGet(HeapPolicy.getAlignedHeapChunkSize());
+                log().string("  new list top: ").hex(list.get()).string("  list bytes ").signed(bytesInUnusedAlignedChunks[stripe].get()).newline();
+                return result;
+            }
+        }
+        return WordFactory.nullPointer();
+    }
 
-        AlignedHeader result = popUnusedAlignedChunkUninterruptibly();
-        if (result.isNull()) {
-            return WordFactory.nullPointer();
-        } else {
-            bytesInUnusedAlignedChunks.subtractAndGet(HeapPolicy.getAlignedHeapChunkSize());
-            log().string("  new list top: ").hex(unusedAlignedChunks.get()).string("  list bytes ").signed(bytesInUnusedAlignedChunks.get()).newline();
-            return result;
+    /** Spreads the threads over the lists of unused chunks, based on their thread address. */
+    private static int getPreferredStripe() {
+        if (!SubstrateOptions.MultiThreaded.getValue()) {
+            return 0;
         }
+        long address = CurrentIsolate.getCurrentThread().rawValue();
+        return (int) ((address >>> 6) ^ (address >>> 16));
     }
 
     @Uninterruptible(reason = "Must not be interrupted by competing pushes.")
-    private AlignedHeader popUnusedAlignedChunkUninterruptibly() {
+    private static AlignedHeader popUnusedAlignedChunkUninterruptibly(UninterruptibleUtils.AtomicPointer<AlignedHeader> list) {
         while (true) {
-            AlignedHeader result = unusedAlignedChunks.get();
+            AlignedHeader result = list.get();
             if (result.isNull()) {
                 return WordFactory.nullPointer();
             } else {
                 AlignedHeader next = HeapChunk.getNext(result);
-                if (unusedAlignedChunks.compareAndSet(result, next)) {
+                if (list.compareAndSet(result, next)) {
                     HeapChunk.setNext(result, WordFactory.nullPointer());
                     return result;
                 }
@@ -264,17 +330,18 @@ final class HeapChunkProvider {
 
     Log report(Log log, boolean traceHeapChunks) {
         log.string("[Unused:").indent(true);
-        log.string("aligned: ").signed(bytesInUnusedAlignedChunks.get())
+        UnsignedWord unusedBytes = getBytesInUnusedChunks();
+        log.string("aligned: ").signed(unusedBytes)
                         .string("/")
-                        .signed(bytesInUnusedAlignedChunks.get().unsignedDivide(HeapPolicy.getAlignedHeapChunkSize()));
-        if (traceHeapChunks) {
-            if (unusedAlignedChunks.get().isNonNull()) {
-                log.newline().string("aligned chunks:").redent(true);
-                for (AlignedHeapChunk.AlignedHeader aChunk = unusedAlignedChunks.get(); aChunk.isNonNull(); aChunk = HeapChunk.getNext(aChunk)) {
+                        .signed(unusedBytes.unsignedDivide(HeapPolicy.getAlignedHeapChunkSize()));
+        if (traceHeapChunks && unusedBytes.aboveThan(0)) {
+            log.newline().string("aligned chunks:").redent(true);
+            for (int i = 0; i < unusedAlignedChunks.length; i++) {
+                for (AlignedHeapChunk.AlignedHeader aChunk = unusedAlignedChunks[i].get(); aChunk.isNonNull(); aChunk = HeapChunk.getNext(aChunk)) {
                     log.newline().hex(aChunk).string(" (").hex(AlignedHeapChunk.getObjectsStart(aChunk)).string("-").hex(HeapChunk.getTopPointer(aChunk)).string(")");
                 }
-                log.redent(false);
             }
+            log.redent(false);
         }
         log.redent(false).string("]");
         return log;
@@ -283,8 +350,10 @@ final class HeapChunkProvider {
     boolean walkHeapChunks(MemoryWalker.Visitor visitor) {
         boolean continueVisiting = true;
         MemoryWalker.HeapChunkAccess<AlignedHeapChunk.AlignedHeader> access = AlignedHeapChunk.getMemoryWalkerAccess();
-        for (AlignedHeapChunk.AlignedHeader aChunk = unusedAlignedChunks.get(); continueVisiting && aChunk.isNonNull(); aChunk = HeapChunk.getNext(aChunk)) {
-            continueVisiting = visitor.visitHeapChunk(aChunk, access);
+        for (int i = 0; continueVisiting && i < unusedAlignedChunks.length; i++) {
+            for (AlignedHeapChunk.AlignedHeader aChunk = unusedAlignedChunks[i].get(); continueVisiting && aChunk.isNonNull(); aChunk = HeapChunk.getNext(aChunk)) {
+                continueVisiting = visitor.visitHeapChunk(aChunk, access);
+            }
         }
         return continueVisiting;
     }
@@ -301,7 +370,10 @@ final class HeapChunkProvider {
 
     @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     void tearDown() {
-        freeAlignedChunkList(unusedAlignedChunks.get());
+        for (int i = 0; i < unusedAlignedChunks.length; i++) {
+            freeAlignedChunkList(unusedAlignedChunks[i].get());
+        }
+        freeAlignedChunkList(releasedAlignedChunks.get());
     }
 
     @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
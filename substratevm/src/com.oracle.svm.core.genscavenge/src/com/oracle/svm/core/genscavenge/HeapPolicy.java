@@ -321,8 +321,8 @@ public final class HeapPolicy {
                 throw OUT_OF_MEMORY_ERROR;
             }
         } else {
-            UnsignedWord maxYoungSize = getMaximumYoungGenerationSize();
-            boolean outOfMemory = maybeCollectOnAllocation(maxYoungSize);
+            UnsignedWord youngSize = GCImpl.getPolicy().getYoungGenerationSize(getMaximumYoungGenerationSize());
+            boolean outOfMemory = maybeCollectOnAllocation(youngSize);
             if (outOfMemory) {
                 throw OUT_OF_MEMORY_ERROR;
             }
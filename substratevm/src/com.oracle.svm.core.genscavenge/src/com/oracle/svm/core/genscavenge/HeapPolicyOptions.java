@@ -58,6 +58,9 @@ public final class HeapPolicyOptions {
     @Option(help = "The size at or above which an array will be allocated in its own unaligned chunk.  0 implies (AlignedHeapChunkSize / 8).") //
     public static final HostedOptionKey<Long> LargeArrayThreshold = new HostedOptionKey<>(HeapPolicy.LARGE_ARRAY_THRESHOLD_SENTINEL_VALUE);
 
+    @Option(help = "The number of lists that unused aligned chunks are kept in, to reduce contention when many threads allocate. Must be a power of 2.") //
+    public static final HostedOptionKey<Integer> UnusedAlignedChunkStripes = new HostedOptionKey<>(8);
+
     @Option(help = "Fill unused memory chunks with a sentinel value.") //
     public static final HostedOptionKey<Boolean> ZapChunks = new HostedOptionKey<>(false);
 
@@ -73,9 +76,19 @@ public final class HeapPolicyOptions {
     @Option(help = "Maximum number of survivor spaces.") //
     public static final HostedOptionKey<Integer> MaxSurvivorSpaces = new HostedOptionKey<>(0);
 
+    @Option(help = "Maximum number of young collections that an object survives before it is promoted to the old generation. Values above MaxSurvivorSpaces are ignored.") //
+    public static final RuntimeOptionKey<Integer> MaxTenuringThreshold = new RuntimeOptionKey<>(15);
+
+    @Option(help = "Percentage of the maximum young generation size that survivor spaces should occupy after a young collection. If they occupy more, objects are promoted at a lower age.") //
+    public static final RuntimeOptionKey<Integer> TargetSurvivorSpacePercent = new RuntimeOptionKey<>(10);
+
     @Option(help = "Determines if a full GC collects the young generation separately or together with the old generation.") //
     public static final RuntimeOptionKey<Boolean> CollectYoungGenerationSeparately = new RuntimeOptionKey<>(false);
 
+    @Option(help = "Copy the whole old generation only in every n-th full GC, and keep the chunks that survived the previous full GC in place otherwise. " +
+                    "Dead objects in those chunks, including unreachable references, are treated as live until the next copying GC. 0 or 1 copies in every full GC.") //
+    public static final RuntimeOptionKey<Integer> OldGenerationCopyInterval = new RuntimeOptionKey<>(0);
+
     private HeapPolicyOptions() {
     }
 }
@@ -46,6 +46,14 @@ public final class OldGeneration extends Generation {
 
     private final GreyObjectsWalker toGreyObjectsWalker = new GreyObjectsWalker();
 
+    /**
+     * The number of aligned chunks at the start of {@link #fromSpace} that survived the last
+     * complete collection. Incremental collections only append chunks to the old generation, so
+     * these chunks stay at the start of the list until the next complete collection.
+     */
+    private long survivorAlignedChunkCount;
+    private int completeCollectionsSinceCopy;
+
     @Platforms(Platform.HOSTED_ONLY.class)
     OldGeneration(String name) {
         super(name);
@@ -100,6 +108,43 @@ public final class OldGeneration extends Generation {
         getToSpace().promoteObjectChunk(obj);
     }
 
+    /**
+     * Moves the aligned chunks that survived the last complete collection to {@link #toSpace}
+     * without copying their objects, unless the old generation is due to be copied (see
+     * {@link HeapPolicyOptions#OldGenerationCopyInterval}). This needs neither the time nor the
+     * memory for copying those objects, but the chunks are grey as a whole, so objects in them that
+     * died since the last copying collection are retained until the next one. This includes
+     * {@link java.lang.ref.Reference} objects: they are discovered again even if they are no longer
+     * reachable, so they can be enqueued, and referents in the retained chunks are not cleared. So
+     * keeping chunks in place must be enabled explicitly.
+     */
+    void retainSurvivorChunks(boolean forceCopy) {
+        int copyInterval = HeapPolicyOptions.OldGenerationCopyInterval.getValue();
+        if (copyInterval <= 1) {
+            /* Disabled, which is the default. */
+            completeCollectionsSinceCopy = 0;
+            return;
+        }
+        completeCollectionsSinceCopy++;
+        if (forceCopy || completeCollectionsSinceCopy >= copyInterval) {
+            completeCollectionsSinceCopy = 0;
+            return;
+        }
+
+        Space from = getFromSpace();
+        AlignedHeapChunk.AlignedHeader chunk = from.getFirstAlignedHeapChunk();
+        for (long i = 0; i < survivorAlignedChunkCount && chunk.isNonNull(); i++) {
+            AlignedHeapChunk.AlignedHeader next = HeapChunk.getNext(chunk);
+            getToSpace().promoteAlignedHeapChunk(chunk, from);
+            chunk = next;
+        }
+    }
+
+    /** Remembers which chunks survived a complete collection, after the spaces were swapped. */
+    void noteCompleteCollectionSurvivors() {
+        survivorAlignedChunkCount = getFromSpace().getAlignedChunkCount();
+    }
+
     void releaseSpaces(ChunkReleaser chunkReleaser) {
         getFromSpace().releaseChunks(chunkReleaser);
     }
@@ -77,6 +77,10 @@ final class ReferenceObjectProcessing {
         softReferencesAreWeak = enabled;
     }
 
+    static boolean getSoftReferencesAreWeak() {
+        return softReferencesAreWeak;
+    }
+
     @AlwaysInline("GC performance")
     public static void discoverIfReference(Object object, ObjectReferenceVisitor refVisitor) {
         assert object != null;
@@ -43,6 +43,7 @@ import org.graalvm.word.UnsignedWord;
 import org.graalvm.word.WordFactory;
 
 import com.oracle.svm.core.SubstrateOptions;
+import com.oracle.svm.core.allocationprofile.AllocationSampler;
 import com.oracle.svm.core.annotate.RestrictHeapAccess;
 import com.oracle.svm.core.annotate.Uninterruptible;
 import com.oracle.svm.core.genscavenge.AlignedHeapChunk.AlignedHeader;
@@ -153,6 +154,7 @@ public final class ThreadLocalAllocation {
         /* If a collection happened, do follow-up tasks now that allocation, etc., is allowed. */
         HeapImpl.getHeapImpl().getGCImpl().possibleCollectionEpilogue(gcEpoch);
         runSlowPathHooks();
+        AllocationSampler.onAllocationBufferRefill(DynamicHub.toClass(hub), getAlignedChunkRefillBytes(), getAlignedChunkRefillBytes(), KnownIntrinsics.readCallerStackPointer());
         return result;
     }
 
@@ -197,9 +199,16 @@ public final class ThreadLocalAllocation {
         /* If a collection happened, do follow-up tasks now that allocation, etc., is allowed. */
         HeapImpl.getHeapImpl().getGCImpl().possibleCollectionEpilogue(gcEpoch);
         runSlowPathHooks();
+        UnsignedWord refillBytes = size.aboveOrEqual(HeapPolicy.getLargeArrayThreshold()) ? size : getAlignedChunkRefillBytes();
+        AllocationSampler.onAllocationBufferRefill(DynamicHub.toClass(hub), refillBytes, getAlignedChunkRefillBytes(), KnownIntrinsics.readCallerStackPointer());
         return result;
     }
 
+    /** The number of bytes that a new aligned chunk makes available to the TLAB. */
+    private static UnsignedWord getAlignedChunkRefillBytes() {
+        return HeapPolicy.getAlignedHeapChunkSize().subtract(AlignedHeapChunk.getObjectsStartOffset());
+    }
+
     @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, reason = "Must not allocate in the implementation of allocation.")
     private static Object slowPathNewArrayWithoutAllocating(DynamicHub hub, int length, UnsignedWord size, int fillStartOffset) {
         DeoptTester.disableDeoptTesting();
@@ -43,6 +43,15 @@ public final class YoungGeneration extends Generation {
     private final GreyObjectsWalker[] survivorGreyObjectsWalkers;
     private final int maxSurvivorSpaces;
 
+    /**
+     * Objects in spaces of at least this age are promoted to the old generation instead of to the
+     * next survivor space. The value is computed after every incremental collection from the
+     * occupancy of the survivor spaces, see {@link #computeTenuringThreshold()}.
+     */
+    private int adaptiveTenuringThreshold;
+    /** The tenuring threshold of the current collection, also limited by the options. */
+    private int tenuringThreshold;
+
     @Platforms(Platform.HOSTED_ONLY.class)
     YoungGeneration(String name) {
         super(name);
@@ -56,6 +65,8 @@ public final class YoungGeneration extends Generation {
             this.survivorToSpaces[i] = new Space("Survivor-" + (i + 1) + " To", false, (i + 1));
             this.survivorGreyObjectsWalkers[i] = new GreyObjectsWalker();
         }
+        this.adaptiveTenuringThreshold = maxSurvivorSpaces;
+        this.tenuringThreshold = maxSurvivorSpaces;
     }
 
     public int getMaxSurvivorSpaces() {
@@ -97,7 +108,7 @@ public final class YoungGeneration extends Generation {
         log.string("[Eden: ").indent(true);
         getEden().report(log, traceHeapChunks);
         log.redent(false).string("]").newline();
-        log.string("[Survivors: ").indent(true);
+        log.string("[Survivors (tenuring threshold ").signed(tenuringThreshold).string("): ").indent(true);
         for (int i = 0; i < maxSurvivorSpaces; i++) {
             this.survivorFromSpaces[i].report(log, traceHeapChunks).newline();
             this.survivorToSpaces[i].report(log, traceHeapChunks);
@@ -188,12 +199,36 @@ public final class YoungGeneration extends Generation {
     }
 
     void prepareForPromotion() {
+        int maxTenuringThreshold = Math.max(0, HeapPolicyOptions.MaxTenuringThreshold.getValue());
+        tenuringThreshold = Math.min(adaptiveTenuringThreshold, maxTenuringThreshold);
         for (int i = 0; i < maxSurvivorSpaces; i++) {
             assert getSurvivorToSpaceAt(i).isEmpty() : "SurvivorToSpace should be empty.";
             getSurvivorGreyObjectsWalker(i).setScanStart(getSurvivorToSpaceAt(i));
         }
     }
 
+    /**
+     * Computes the tenuring threshold for the next incremental collection, after the spaces were
+     * swapped. Objects are promoted at the lowest age at which the objects of that or a lower age
+     * would occupy more than {@link HeapPolicyOptions#TargetSurvivorSpacePercent} of the young
+     * generation. So objects that survive only a few collections do not reach the old generation,
+     * but the survivor spaces cannot grow without bounds either.
+     */
+    void computeTenuringThreshold() {
+        UnsignedWord youngSize = GCImpl.getPolicy().getYoungGenerationSize(HeapPolicy.getMaximumYoungGenerationSize());
+        UnsignedWord targetBytes = youngSize.unsignedDivide(100).multiply(HeapPolicyOptions.TargetSurvivorSpacePercent.getValue());
+        UnsignedWord survivorBytes = WordFactory.zero();
+        int threshold = 1;
+        while (threshold < maxSurvivorSpaces) {
+            survivorBytes = survivorBytes.add(getSurvivorFromSpaceAt(threshold - 1).getChunkBytes());
+            if (survivorBytes.aboveThan(targetBytes)) {
+                break;
+            }
+            threshold++;
+        }
+        adaptiveTenuringThreshold = Math.min(threshold, maxSurvivorSpaces);
+    }
+
     boolean scanGreyObjects() {
         Log trace = Log.noopLog().string("[YoungGeneration.scanGreyObjects:");
         boolean needScan = false;
@@ -255,7 +290,7 @@ public final class YoungGeneration extends Generation {
         assert originalSpace.isEdenSpace() || originalSpace.isSurvivorSpace() : "Should be Eden or survivor.";
         assert originalSpace.isFromSpace() : "must not be called for other objects";
 
-        if (originalSpace.getAge() < maxSurvivorSpaces) {
+        if (originalSpace.getAge() < tenuringThreshold) {
             int age = originalSpace.getNextAgeForPromotion();
             Space toSpace = getSurvivorToSpaceAt(age - 1);
             return toSpace.promoteAlignedObject(original, originalSpace);
@@ -268,7 +303,7 @@ public final class YoungGeneration extends Generation {
     private void promoteUnalignedObject(UnalignedHeapChunk.UnalignedHeader originalChunk, Space originalSpace) {
         assert originalSpace.isFromSpace() : "must not be called for other objects";
 
-        if (originalSpace.getAge() < maxSurvivorSpaces) {
+        if (originalSpace.getAge() < tenuringThreshold) {
             int age = originalSpace.getNextAgeForPromotion();
             Space toSpace = getSurvivorToSpaceAt(age - 1);
             toSpace.promoteUnalignedHeapChunk(originalChunk, originalSpace);
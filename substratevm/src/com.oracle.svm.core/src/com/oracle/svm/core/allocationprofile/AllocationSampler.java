@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.allocationprofile;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.graalvm.compiler.options.Option;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.UnsignedWord;
+
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.code.FrameInfoQueryResult;
+import com.oracle.svm.core.jdk.RuntimeSupport;
+import com.oracle.svm.core.jdk.StackTraceUtils;
+import com.oracle.svm.core.log.Log;
+import com.oracle.svm.core.option.HostedOptionKey;
+import com.oracle.svm.core.option.RuntimeOptionKey;
+import com.oracle.svm.core.stack.JavaStackFrameVisitor;
+import com.oracle.svm.core.stack.JavaStackWalker;
+import com.oracle.svm.core.threadlocal.FastThreadLocalFactory;
+import com.oracle.svm.core.threadlocal.FastThreadLocalInt;
+import com.oracle.svm.core.threadlocal.FastThreadLocalLong;
+import com.oracle.svm.core.util.MetricsLogUtils;
+
+/**
+ * Samples allocations at run time, without any instrumentation of the allocation sites (in contrast
+ * to {@link AllocationSite}). The garbage collector reports every refill of a thread-local
+ * allocation buffer, and every allocation that gets memory of its own, e.g., a large array. Each
+ * thread counts down {@link Options#AllocationSamplingInterval} bytes of refills, and when the
+ * count reaches zero, the stack trace of the allocation that caused the refill is recorded. Each
+ * sample is weighted with the number of bytes that were made available to the thread since its
+ * previous sample.
+ *
+ * Only allocations that cause a refill can be sampled, so the samples are biased towards
+ * allocations that do not fit into the rest of the buffer, e.g., large objects. The interval is
+ * rounded up to a multiple of the buffer size, because a shorter interval would not take more
+ * samples.
+ */
+public final class AllocationSampler {
+
+    public static class Options {
+        @Option(help = "Enable sampling of allocations at run time")//
+        public static final HostedOptionKey<Boolean> AllocationSampling = new HostedOptionKey<>(false);
+
+        @Option(help = "The number of bytes allocated by a thread between two allocation samples, rounded up to a multiple of the thread-local allocation buffer size")//
+        public static final RuntimeOptionKey<Long> AllocationSamplingInterval = new RuntimeOptionKey<>(4L * 1024 * 1024);
+
+        @Option(help = "The maximum number of frames recorded for each allocation sample")//
+        public static final RuntimeOptionKey<Integer> AllocationSamplingStackDepth = new RuntimeOptionKey<>(8);
+
+        @Option(help = "Print the allocation samples when the application exits")//
+        public static final RuntimeOptionKey<Boolean> PrintAllocationSamples = new RuntimeOptionKey<>(true);
+    }
+
+    /** Bytes the thread can still allocate before the next sample is taken. */
+    private static final FastThreadLocalLong bytesUntilSample = FastThreadLocalFactory.createLong();
+    /** The length of the current sampling interval of the thread, i.e., the weight of a sample. */
+    private static final FastThreadLocalLong samplingInterval = FastThreadLocalFactory.createLong();
+    /** Non-zero once the first sampling interval of the thread has been started. */
+    private static final FastThreadLocalInt started = FastThreadLocalFactory.createInt();
+    /** Prevents sampling allocations that are done while a sample is recorded. */
+    private static final FastThreadLocalInt recordingSample = FastThreadLocalFactory.createInt();
+
+    private static final ConcurrentHashMap<SampledStack, SampledStack> samples = new ConcurrentHashMap<>();
+
+    private AllocationSampler() {
+    }
+
+    /**
+     * Called by the garbage collector when a thread needed new memory for its allocations.
+     *
+     * @param type the type of the object whose allocation needed the new memory
+     * @param refilledBytes the number of bytes that were made available to the thread
+     * @param bufferSize the number of bytes that a refill of the allocation buffer makes available
+     * @param callerSP the stack pointer of the method that allocated the object
+     */
+    public static void onAllocationBufferRefill(Class<?> type, UnsignedWord refilledBytes, UnsignedWord bufferSize, Pointer callerSP) {
+        if (!Options.AllocationSampling.getValue()) {
+            return;
+        }
+
+        if (started.get() == 0) {
+            /* First refill of this thread, which counts towards the first sample. */
+            started.set(1);
+            startNextInterval(bufferSize);
+        }
+        long remaining = bytesUntilSample.get() - refilledBytes.rawValue();
+        if (remaining > 0 || recordingSample.get() != 0) {
+            /* An allocation while recording a sample is attributed to the next sample. */
+            bytesUntilSample.set(remaining);
+            return;
+        }
+
+        long weight = samplingInterval.get() - remaining;
+        bytesUntilSample.set(0);
+        recordingSample.set(1);
+        try {
+            recordSample(type, weight, callerSP);
+        } finally {
+            recordingSample.set(0);
+        }
+        long recordingBytes = -bytesUntilSample.get();
+        startNextInterval(bufferSize);
+        bytesUntilSample.set(bytesUntilSample.get() - recordingBytes);
+    }
+
+    private static void startNextInterval(UnsignedWord bufferSize) {
+        long buffer = Math.max(1, bufferSize.rawValue());
+        long interval = Math.max(buffer, Options.AllocationSamplingInterval.getValue());
+        interval = (interval + buffer - 1) / buffer * buffer;
+        samplingInterval.set(interval);
+        bytesUntilSample.set(interval);
+    }
+
+    private static void recordSample(Class<?> type, long weight, Pointer callerSP) {
+        CollectFramesVisitor visitor = new CollectFramesVisitor(Options.AllocationSamplingStackDepth.getValue());
+        JavaStackWalker.walkCurrentThread(callerSP, visitor);
+
+        SampledStack key = new SampledStack(type, Arrays.copyOf(visitor.frames, visitor.count));
+        SampledStack existing = samples.putIfAbsent(key, key);
+        SampledStack stack = existing != null ? existing : key;
+        stack.count.incrementAndGet();
+        stack.bytes.addAndGet(weight);
+    }
+
+    /** Returns the sampled stacks, ordered by the estimated number of allocated bytes. */
+    public static List<SampledStack> getSamples() {
+        List<SampledStack> result = new ArrayList<>(samples.keySet());
+        result.sort((s1, s2) -> Long.compare(s2.getBytes(), s1.getBytes()));
+        return result;
+    }
+
+    public static void dumpSamples() {
+        dumpSamples(Log.log());
+    }
+
+    public static void dumpSamples(Log log) {
+        assert Options.AllocationSampling.getValue();
+
+        long totalBytes = 0;
+        long totalCount = 0;
+        DecimalFormat grpFormatter = new DecimalFormat("###,###,###,###");
+
+        log.string("Allocation class;Sample count;Estimated size in bytes;Allocation stack").newline();
+        for (SampledStack stack : getSamples()) {
+            totalBytes += stack.getBytes();
+            totalCount += stack.getCount();
+
+            log.string(stack.type.getName()).string(";").string(grpFormatter.format(stack.getCount())).string(";").string(grpFormatter.format(stack.getBytes())).newline();
+            for (StackTraceElement frame : stack.frames) {
+                log.string(";;;").string(frame.toString()).newline();
+            }
+        }
+
+        MetricsLogUtils.logSection("Allocation sampling summary");
+        MetricsLogUtils.logMemoryMetric("Estimated total memory:", totalBytes);
+        MetricsLogUtils.logCounterMetric("Total samples:", totalCount);
+    }
+
+    /** The allocations of one type that were sampled with the same stack trace. */
+    public static final class SampledStack {
+        private final Class<?> type;
+        private final StackTraceElement[] frames;
+        private final int hashCode;
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+
+        SampledStack(Class<?> type, StackTraceElement[] frames) {
+            this.type = type;
+            this.frames = frames;
+            this.hashCode = type.hashCode() * 31 + Arrays.hashCode(frames);
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        public StackTraceElement[] getFrames() {
+            return frames;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        /** The estimated number of bytes allocated with this type and stack trace. */
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof SampledStack) {
+                SampledStack other = (SampledStack) obj;
+                return type == other.type && Arrays.equals(frames, other.frames);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final class CollectFramesVisitor extends JavaStackFrameVisitor {
+        final StackTraceElement[] frames;
+        int count;
+
+        CollectFramesVisitor(int maxDepth) {
+            this.frames = new StackTraceElement[Math.max(1, maxDepth)];
+        }
+
+        @Override
+        public boolean visitFrame(FrameInfoQueryResult frameInfo) {
+            if (!StackTraceUtils.shouldShowFrame(frameInfo, false, true, false)) {
+                return true;
+            }
+            frames[count++] = frameInfo.getSourceReference();
+            return count < frames.length;
+        }
+    }
+}
+
+@AutomaticFeature
+class AllocationSamplingFeature implements Feature {
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return AllocationSampler.Options.AllocationSampling.getValue();
+    }
+
+    @Override
+    public void afterRegistration(AfterRegistrationAccess access) {
+        RuntimeSupport.getRuntimeSupport().addShutdownHook(() -> {
+            if (AllocationSampler.Options.PrintAllocationSamples.getValue()) {
+                AllocationSampler.dumpSamples();
+            }
+        });
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.c.function;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.graalvm.nativeimage.Isolate;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.nativeimage.Isolates;
+import org.graalvm.nativeimage.Isolates.CreateIsolateParameters;
+import org.graalvm.nativeimage.Isolates.IsolateException;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.SubstrateOptions;
+import com.oracle.svm.core.log.Log;
+
+/**
+ * A pool of fresh isolates for applications that create a short-lived isolate per unit of work. A
+ * background thread creates isolates ahead of time and tears down released isolates, so that
+ * neither the initialization of a new heap nor the tear-down of an old one is on the critical path
+ * of the caller:
+ *
+ * <pre>
+ * IsolateThread thread = pool.acquire();
+ * try {
+ *     // call into the isolate
+ * } finally {
+ *     pool.release(thread);
+ * }
+ * </pre>
+ *
+ * Isolates are never reused: every {@link #acquire()} returns an isolate that has not executed any
+ * code yet, so the isolation between units of work is the same as with
+ * {@link Isolates#createIsolate}.
+ */
+public final class IsolatePool implements AutoCloseable {
+
+    /**
+     * Work item of the background thread that requests the creation of a new isolate. In the
+     * queue of ready isolates, it wakes up callers of {@link #acquire()} after the pool was closed
+     * or the creation of an isolate failed.
+     */
+    private static final long CREATE = 0L;
+
+    private final CreateIsolateParameters parameters;
+    /** The raw values of the isolates that are ready to be acquired. */
+    private final BlockingQueue<Long> ready;
+    /** {@link #CREATE} or the raw value of an isolate that must be torn down. */
+    private final BlockingQueue<Long> work = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile IsolateException failure;
+    /** Only set while synchronized on the pool, see {@link #release}. */
+    private volatile boolean closed;
+
+    public IsolatePool(int size, CreateIsolateParameters parameters) {
+        if (!SubstrateOptions.SpawnIsolates.getValue()) {
+            throw new IsolateException("Spawning of multiple isolates is disabled.");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size of an isolate pool must be positive: " + size);
+        }
+        this.parameters = parameters;
+        this.ready = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            work.add(CREATE);
+        }
+        this.worker = new Thread(this::run, "Isolate Pool");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public IsolatePool(int size) {
+        this(size, CreateIsolateParameters.getDefault());
+    }
+
+    /**
+     * Takes a fresh isolate from the pool, waiting until one is available, and attaches the current
+     * thread to it.
+     *
+     * @throws IsolateException if the pool failed to create an isolate
+     * @throws IllegalStateException if the pool is closed
+     */
+    public IsolateThread acquire() throws InterruptedException {
+        checkUsable();
+        long isolate = ready.take();
+        if (isolate == CREATE) {
+            /* Pass the wake-up on to the next waiting caller. */
+            ready.offer(CREATE);
+            checkUsable();
+            throw new IllegalStateException("Isolate pool is closed.");
+        }
+        work.add(CREATE);
+        return Isolates.attachCurrentThread(WordFactory.pointer(isolate));
+    }
+
+    private void checkUsable() {
+        if (failure != null) {
+            throw failure;
+        } else if (closed) {
+            throw new IllegalStateException("Isolate pool is closed.");
+        }
+    }
+
+    /**
+     * Detaches the current thread from an isolate that was {@linkplain #acquire() acquired} from
+     * this pool. The isolate is torn down by the background thread once all other threads have
+     * detached from it, or by the current thread if the pool is already closed.
+     */
+    public void release(IsolateThread thread) {
+        Isolate isolate = Isolates.getIsolate(thread);
+        Isolates.detachThread(thread);
+        synchronized (this) {
+            if (!closed) {
+                /* Torn down by the background thread, or by close() after it stopped. */
+                work.add(isolate.rawValue());
+                return;
+            }
+        }
+        tearDown(isolate.rawValue());
+    }
+
+    /**
+     * Stops the background thread, tears down the isolates that were not acquired, and wakes up
+     * the callers that wait in {@link #acquire()}. Isolates that are still acquired are torn down
+     * when they are released.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            closed = true;
+        }
+        worker.interrupt();
+        worker.join();
+        for (Long isolate = ready.poll(); isolate != null; isolate = ready.poll()) {
+            if (isolate != CREATE) {
+                tearDown(isolate);
+            }
+        }
+        for (Long isolate = work.poll(); isolate != null; isolate = work.poll()) {
+            if (isolate != CREATE) {
+                tearDown(isolate);
+            }
+        }
+        ready.offer(CREATE);
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                long item = work.take();
+                if (item != CREATE) {
+                    tearDown(item);
+                } else if (failure == null) {
+                    /* After a failure, only the released isolates are still torn down. */
+                    create();
+                }
+            }
+        } catch (InterruptedException e) {
+            /* The pool is closed, close() tears down the remaining isolates. */
+        }
+    }
+
+    private void create() throws InterruptedException {
+        Isolate isolate;
+        try {
+            IsolateThread thread = Isolates.createIsolate(parameters);
+            isolate = Isolates.getIsolate(thread);
+            Isolates.detachThread(thread);
+        } catch (IsolateException e) {
+            failure = e;
+            /* Wake up the callers that wait in acquire(). */
+            ready.offer(CREATE);
+            return;
+        }
+        try {
+            ready.put(isolate.rawValue());
+        } catch (InterruptedException e) {
+            tearDown(isolate.rawValue());
+            throw e;
+        }
+    }
+
+    private static void tearDown(long isolate) {
+        try {
+            IsolateThread thread = Isolates.attachCurrentThread(WordFactory.pointer(isolate));
+            Isolates.tearDownIsolate(thread);
+        } catch (IsolateException e) {
+            Log.log().string("Failed to tear down a pooled isolate: ").string(e.getMessage()).newline();
+        }
+    }
+}
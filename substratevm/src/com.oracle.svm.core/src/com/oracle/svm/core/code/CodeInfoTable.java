@@ -26,6 +26,7 @@ package com.oracle.svm.core.code;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.oracle.svm.core.heap.ReferenceMapIndex;
 import org.graalvm.compiler.api.replacements.Fold;
@@ -72,6 +73,9 @@ public class CodeInfoTable {
 
         @Option(help = "Count accesses to the image and runtime code info table")//
         public static final HostedOptionKey<Boolean> CodeCacheCounters = new HostedOptionKey<>(false);
+
+        @Option(help = "Number of entries of the cache for decoded metadata of image code, used for stack walks. 0 disables the cache.")//
+        public static final HostedOptionKey<Integer> ImageCodeInfoQueryCacheSize = new HostedOptionKey<>(0);
     }
 
     @Fold
@@ -97,11 +101,36 @@ public class CodeInfoTable {
         return imageCodeInfo;
     }
 
+    /**
+     * Decodes the metadata for the IP. For image code, the result can come from a cache shared by
+     * all threads, so it must not be modified.
+     */
     public static CodeInfoQueryResult lookupCodeInfoQueryResult(CodeInfo info, CodePointer absoluteIP) {
         counters().lookupCodeInfoCount.inc();
         if (info.isNull()) {
             return null;
         }
+        AtomicReferenceArray<CodeInfoQueryResult> cache = getImageCodeCache().getQueryResultCache();
+        if (cache != null && info.equal(imageCodeInfo)) {
+            /*
+             * Image code is never invalidated, so its metadata can be cached. The cache is direct
+             * mapped: a colliding IP simply replaces the entry. The entries are immutable and
+             * published with a volatile write, so no further synchronization is needed.
+             */
+            int index = (int) ((absoluteIP.rawValue() * 0x9E3779B97F4A7C15L) >>> 32) & (cache.length() - 1);
+            CodeInfoQueryResult cached = cache.get(index);
+            if (cached != null && cached.getIP().equal(absoluteIP)) {
+                counters().queryCacheHitCount.inc();
+                return cached;
+            }
+            CodeInfoQueryResult result = decodeCodeInfoQueryResult(info, absoluteIP);
+            cache.set(index, result);
+            return result;
+        }
+        return decodeCodeInfoQueryResult(info, absoluteIP);
+    }
+
+    private static CodeInfoQueryResult decodeCodeInfoQueryResult(CodeInfo info, CodePointer absoluteIP) {
         CodeInfoQueryResult result = new CodeInfoQueryResult();
         result.ip = absoluteIP;
         CodeInfoAccess.lookupCodeInfo(info, CodeInfoAccess.relativeIP(info, absoluteIP), result);
@@ -198,7 +227,7 @@ public class CodeInfoTable {
      * invalidation/freeing that the GC does because the tether is still reachable.
      */
     @Uninterruptible(reason = "Must prevent the GC from freeing the CodeInfo object.")
-    private static void invalidateInstalledCodeAtSafepoint(CodePointer codePointer) {
+    static void invalidateInstalledCodeAtSafepoint(CodePointer codePointer) {
         UntetheredCodeInfo untetheredInfo = getRuntimeCodeCache().lookupCodeInfo(codePointer);
         Object tether = CodeInfoAccess.acquireTether(untetheredInfo);
         try {
@@ -260,6 +289,7 @@ public class CodeInfoTable {
 final class CodeInfoTableCounters {
     private final Counter.Group counters = new Counter.Group(CodeInfoTable.Options.CodeCacheCounters, "CodeInfoTable");
     final Counter lookupCodeInfoCount = new Counter(counters, "lookupCodeInfo", "");
+    final Counter queryCacheHitCount = new Counter(counters, "queryCacheHit", "");
     final Counter lookupDeoptimizationEntrypointCount = new Counter(counters, "lookupDeoptimizationEntrypoint", "");
     final Counter visitObjectReferencesCount = new Counter(counters, "visitObjectReferences", "");
     final Counter lookupInstalledCodeCount = new Counter(counters, "lookupInstalledCode", "");
@@ -24,6 +24,8 @@
  */
 package com.oracle.svm.core.code;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import org.graalvm.compiler.word.Word;
 import org.graalvm.nativeimage.ImageSingletons;
 import org.graalvm.nativeimage.Platform;
@@ -67,6 +69,12 @@ public class ImageCodeInfo {
     @UnknownObjectField(types = {String[].class}) String[] frameInfoSourceMethodNames;
     @UnknownObjectField(types = {String[].class}) String[] frameInfoNames;
 
+    /**
+     * Cache of decoded metadata, or null if disabled, see
+     * {@link CodeInfoTable#lookupCodeInfoQueryResult}.
+     */
+    private final AtomicReferenceArray<CodeInfoQueryResult> queryResultCache;
+
     @Platforms(Platform.HOSTED_ONLY.class)
     ImageCodeInfo() {
         NonmovableObjectArray<Object> objfields = NonmovableArrays.createObjectArray(Object[].class, CodeInfoImpl.OBJFIELDS_COUNT);
@@ -78,6 +86,10 @@ public class ImageCodeInfo {
 
         int runtimeInfoSize = SizeOf.get(CodeInfoImpl.class);
         runtimeCodeInfoData = new byte[runtimeInfoSize];
+
+        int cacheSize = CodeInfoTable.Options.ImageCodeInfoQueryCacheSize.getValue();
+        /* The cache is indexed with a mask, so the size is rounded down to a power of two. */
+        queryResultCache = cacheSize > 0 ? new AtomicReferenceArray<>(Integer.highestOneBit(cacheSize)) : null;
     }
 
     @Uninterruptible(reason = "Executes during isolate creation.")
@@ -107,6 +119,10 @@ public class ImageCodeInfo {
         return visitor.visitCode(CodeInfoTable.getImageCodeInfo(), ImageSingletons.lookup(CodeInfoMemoryWalker.class));
     }
 
+    AtomicReferenceArray<CodeInfoQueryResult> getQueryResultCache() {
+        return queryResultCache;
+    }
+
     public HostedImageCodeInfo getHostedImageCodeInfo() {
         return hostedImageCodeInfo;
     }
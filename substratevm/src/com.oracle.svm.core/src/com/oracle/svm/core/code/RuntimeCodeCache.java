@@ -65,6 +65,9 @@ public class RuntimeCodeCache {
 
         @Option(help = "Allocate code cache with write access, allowing inlining of objects", type = OptionType.Expert)//
         public static final RuntimeOptionKey<Boolean> WriteableCodeCache = new RuntimeOptionKey<>(false);
+
+        @Option(help = "Maximum size in bytes of runtime compiled code. When installing a method would exceed it, the least recently installed methods that are not on the stack are invalidated. 0 means no limit.")//
+        public static final RuntimeOptionKey<Long> MaxRuntimeCodeSize = new RuntimeOptionKey<>(0L);
     }
 
     private final RingBuffer<CodeCacheLogEntry> recentCodeCacheOperations = new RingBuffer<>(30, CodeCacheLogEntry::new);
@@ -74,7 +77,10 @@ public class RuntimeCodeCache {
     private final Counter lookupMethodCount = new Counter(counters, "lookupMethod", "");
     private final Counter addMethodCount = new Counter(counters, "addMethod", "");
     private final Counter invalidateMethodCount = new Counter(counters, "invalidateMethod", "");
+    private final Counter evictMethodCount = new Counter(counters, "evictMethod", "");
+    private final Counter evictedCodeBytes = new Counter(counters, "evictedCodeBytes", "");
     private final CodeNotOnStackVerifier codeNotOnStackVerifier = new CodeNotOnStackVerifier();
+    private final CodeOnStackFinder codeOnStackFinder = new CodeOnStackFinder();
 
     static final String INFO_ADD = "Add";
     static final String INFO_INVALIDATE = "Invalidate";
@@ -83,6 +89,14 @@ public class RuntimeCodeCache {
 
     private NonmovableArray<UntetheredCodeInfo> codeInfos;
     private int numCodeInfos;
+    /**
+     * The code start of the methods in {@link #codeInfos} in the order in which they were
+     * installed, oldest first. Used to select methods for eviction, see
+     * {@link Options#MaxRuntimeCodeSize}.
+     */
+    private NonmovableArray<CodePointer> installOrder;
+    /** The sum of the code sizes of the methods in {@link #codeInfos}. */
+    private long runtimeCodeSize;
 
     @Platforms(Platform.HOSTED_ONLY.class)
     public RuntimeCodeCache() {
@@ -93,6 +107,8 @@ public class RuntimeCodeCache {
     public final void tearDown() {
         NonmovableArrays.releaseUnmanagedArray(codeInfos);
         codeInfos = NonmovableArrays.nullArray();
+        NonmovableArrays.releaseUnmanagedArray(installOrder);
+        installOrder = NonmovableArrays.nullArray();
 
         // releases all CodeInfos from our table too
         RuntimeCodeInfoMemory.singleton().tearDown();
@@ -161,6 +177,7 @@ public class RuntimeCodeCache {
     public void addMethod(CodeInfo info) {
         VMOperation.guaranteeInProgressAtSafepoint("Modifying code tables that are used by the GC");
         InstalledCodeObserverSupport.activateObservers(RuntimeCodeInfoAccess.getCodeObserverHandles(info));
+        evictMethods(CodeInfoAccess.getCodeSize(info).rawValue());
         long num = logMethodOperation(info, INFO_ADD);
         addMethodOperation(info);
         logMethodOperationEnd(num);
@@ -185,8 +202,10 @@ public class RuntimeCodeCache {
         assert idx < 0 : "must not find code already in table";
         int insertionPoint = -idx - 1;
         NonmovableArrays.arraycopy(codeInfos, insertionPoint, codeInfos, insertionPoint + 1, numCodeInfos - insertionPoint);
+        NonmovableArrays.setWord(installOrder, numCodeInfos, CodeInfoAccess.getCodeStart(info));
         numCodeInfos++;
         NonmovableArrays.setWord(codeInfos, insertionPoint, info);
+        runtimeCodeSize += CodeInfoAccess.getCodeSize(info).rawValue();
 
         if (Options.TraceCodeCache.getValue()) {
             logTable();
@@ -200,11 +219,46 @@ public class RuntimeCodeCache {
             newTableSize = INITIAL_TABLE_SIZE;
         }
         NonmovableArray<UntetheredCodeInfo> newCodeInfos = NonmovableArrays.createWordArray(newTableSize);
+        NonmovableArray<CodePointer> newInstallOrder = NonmovableArrays.createWordArray(newTableSize);
         if (codeInfos.isNonNull()) {
             NonmovableArrays.arraycopy(codeInfos, 0, newCodeInfos, 0, NonmovableArrays.lengthOf(codeInfos));
             NonmovableArrays.releaseUnmanagedArray(codeInfos);
+            NonmovableArrays.arraycopy(installOrder, 0, newInstallOrder, 0, NonmovableArrays.lengthOf(installOrder));
+            NonmovableArrays.releaseUnmanagedArray(installOrder);
         }
         codeInfos = newCodeInfos;
+        installOrder = newInstallOrder;
+    }
+
+    /**
+     * Invalidates methods, least recently installed first, until the code of a new method of the
+     * given size fits into {@link Options#MaxRuntimeCodeSize}. Methods that are on the stack of any
+     * thread are skipped: they are likely hot, and invalidating them would require deoptimizing
+     * their frames.
+     */
+    private void evictMethods(long newCodeSize) {
+        long maxCodeSize = Options.MaxRuntimeCodeSize.getValue();
+        if (maxCodeSize <= 0) {
+            return;
+        }
+        int i = 0;
+        while (runtimeCodeSize + newCodeSize > maxCodeSize && i < numCodeInfos) {
+            CodePointer codeStart = NonmovableArrays.getWord(installOrder, i);
+            if (codeOnStackFinder.isOnStack(codeStart)) {
+                i++;
+                continue;
+            }
+            int numBefore = numCodeInfos;
+            long sizeBefore = runtimeCodeSize;
+            CodeInfoTable.invalidateInstalledCodeAtSafepoint(codeStart);
+            if (numCodeInfos == numBefore) {
+                /* The method was not alive anymore, so it was not removed. */
+                i++;
+            } else {
+                evictMethodCount.inc();
+                evictedCodeBytes.add(sizeBefore - runtimeCodeSize);
+            }
+        }
     }
 
     protected void invalidateMethod(CodeInfo info) {
@@ -255,11 +309,22 @@ public class RuntimeCodeCache {
          */
 
         /* Remove info entry from our table. */
-        int idx = binarySearch(codeInfos, 0, numCodeInfos, CodeInfoAccess.getCodeStart(info));
+        CodePointer codeStart = CodeInfoAccess.getCodeStart(info);
+        int idx = binarySearch(codeInfos, 0, numCodeInfos, codeStart);
         assert idx >= 0 : "info must be in table";
         NonmovableArrays.arraycopy(codeInfos, idx + 1, codeInfos, idx, numCodeInfos - (idx + 1));
+
+        int orderIdx = 0;
+        while (NonmovableArrays.getWord(installOrder, orderIdx).notEqual(codeStart)) {
+            orderIdx++;
+        }
+        assert orderIdx < numCodeInfos : "info must be in install order";
+        NonmovableArrays.arraycopy(installOrder, orderIdx + 1, installOrder, orderIdx, numCodeInfos - (orderIdx + 1));
+
         numCodeInfos--;
         NonmovableArrays.setWord(codeInfos, numCodeInfos, WordFactory.nullPointer());
+        NonmovableArrays.setWord(installOrder, numCodeInfos, WordFactory.nullPointer());
+        runtimeCodeSize -= CodeInfoAccess.getCodeSize(info).rawValue();
 
         RuntimeCodeInfoAccess.partialReleaseAfterInvalidate(info, notifyGC);
 
@@ -448,6 +513,43 @@ public class RuntimeCodeCache {
         }
     }
 
+    /** Checks whether any thread has a frame of the method that starts at a given address. */
+    private static final class CodeOnStackFinder extends StackFrameVisitor {
+        private CodePointer codeStart;
+        private boolean found;
+
+        @Platforms(Platform.HOSTED_ONLY.class)
+        CodeOnStackFinder() {
+        }
+
+        @NeverInline("Starting a stack walk.")
+        boolean isOnStack(CodePointer start) {
+            this.codeStart = start;
+            this.found = false;
+
+            Pointer sp = readCallerStackPointer();
+            JavaStackWalker.walkCurrentThread(sp, this);
+            if (SubstrateOptions.MultiThreaded.getValue()) {
+                for (IsolateThread vmThread = VMThreads.firstThread(); vmThread.isNonNull() && !found; vmThread = VMThreads.nextThread(vmThread)) {
+                    if (vmThread == CurrentIsolate.getCurrentThread()) {
+                        continue;
+                    }
+                    JavaStackWalker.walkThread(vmThread, this);
+                }
+            }
+            return found;
+        }
+
+        @Override
+        public boolean visitFrame(Pointer sp, CodePointer ip, CodeInfo currentCodeInfo, DeoptimizedFrame deoptimizedFrame) {
+            if (deoptimizedFrame == null && CodeInfoAccess.getCodeStart(currentCodeInfo).equal(codeStart)) {
+                found = true;
+                return false;
+            }
+            return true;
+        }
+    }
+
     /** This is the interface that clients have to implement. */
     public interface CodeInfoVisitor {
         /**
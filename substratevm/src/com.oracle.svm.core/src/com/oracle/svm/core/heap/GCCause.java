@@ -83,6 +83,11 @@ public class GCCause {
         return GCCauses[causeId];
     }
 
+    /** Returns all known causes, indexed by their id. The array may contain {@code null} entries. */
+    public static GCCause[] getGCCauses() {
+        return GCCauses;
+    }
+
     @Platforms(Platform.HOSTED_ONLY.class)
     public static void cacheReverseMapping() {
         GCCauses = HostedGCCauseList.toArray(new GCCause[HostedGCCauseList.size()]);
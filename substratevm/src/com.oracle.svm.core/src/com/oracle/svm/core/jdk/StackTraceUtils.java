@@ -29,13 +29,24 @@ import java.util.ArrayList;
 import com.oracle.svm.core.thread.JavaContinuations;
 import com.oracle.svm.core.thread.Target_java_lang_Continuation;
 import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.nativeimage.c.function.CodePointer;
 import org.graalvm.util.DirectAnnotationAccess;
 import org.graalvm.word.Pointer;
+import org.graalvm.word.WordFactory;
 
 import com.oracle.svm.core.SubstrateOptions;
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.code.CodeInfo;
+import com.oracle.svm.core.code.CodeInfoAccess;
 import com.oracle.svm.core.code.FrameInfoQueryResult;
+import com.oracle.svm.core.code.UntetheredCodeInfo;
+import com.oracle.svm.core.code.UntetheredCodeInfoAccess;
+import com.oracle.svm.core.deopt.DeoptimizedFrame;
 import com.oracle.svm.core.stack.JavaStackFrameVisitor;
 import com.oracle.svm.core.stack.JavaStackWalker;
+import com.oracle.svm.core.stack.StackFrameVisitor;
+import com.oracle.svm.core.thread.JavaThreads;
+import com.oracle.svm.core.thread.ThreadHandshake;
 
 import jdk.vm.ci.meta.MetaAccessProvider;
 import jdk.vm.ci.meta.ResolvedJavaMethod;
@@ -72,6 +83,32 @@ public class StackTraceUtils {
         return visitor.trace.toArray(NO_ELEMENTS);
     }
 
+    /**
+     * Captures the stack trace of another thread with a {@linkplain ThreadHandshake handshake}, so
+     * that only that thread is stopped. No allocation is allowed during the handshake, so the
+     * frames are only recorded into preallocated arrays and are decoded into stack trace elements
+     * after the thread was released. Used by {@link Thread#getStackTrace()}.
+     *
+     * Returns an empty stack trace if the thread is not alive. Captures at most
+     * {@link SubstrateOptions#MaxJavaStackTraceDepth} stack trace elements if max depth > 0, or all
+     * if max depth <= 0.
+     */
+    public static StackTraceElement[] getStackTraceAtHandshake(Thread thread) {
+        IsolateThread isolateThread = JavaThreads.getIsolateThreadUnsafe(thread);
+        int capacity = 64;
+        while (true) {
+            RecordStackFramesOperation operation = new RecordStackFramesOperation(thread, capacity);
+            if (isolateThread.isNull() || !ThreadHandshake.execute(isolateThread, operation) || !operation.threadFound) {
+                return NO_ELEMENTS;
+            }
+            if (!operation.overflowed) {
+                return operation.decode().toArray(NO_ELEMENTS);
+            }
+            /* The stack has more frames than fit into the arrays, so record it again. */
+            capacity *= 2;
+        }
+    }
+
     public static Class<?>[] getClassContext(int skip, Pointer startSP) {
         GetClassContextVisitor visitor = new GetClassContextVisitor(skip);
         JavaStackWalker.walkCurrentThread(startSP, visitor);
@@ -274,3 +311,92 @@ class GetClassContextVisitor extends JavaStackFrameVisitor {
         return true;
     }
 }
+
+/**
+ * Records the physical frames of a thread during a handshake. For a frame of runtime-compiled code,
+ * the tether of its {@link CodeInfo} is recorded as well, so that the metadata needed for decoding
+ * is not freed when the code is invalidated after the thread was released.
+ */
+final class RecordStackFramesOperation extends ThreadHandshake.Operation {
+    private final Thread thread;
+    private final long[] ips;
+    private final long[] codeInfos;
+    private final Object[] tethers;
+    private final DeoptimizedFrame[] deoptimizedFrames;
+    private final RecordFrameVisitor visitor;
+    private int count;
+    boolean threadFound;
+    boolean overflowed;
+
+    RecordStackFramesOperation(Thread thread, int capacity) {
+        super("RecordStackFrames");
+        this.thread = thread;
+        this.ips = new long[capacity];
+        this.codeInfos = new long[capacity];
+        this.tethers = new Object[capacity];
+        this.deoptimizedFrames = new DeoptimizedFrame[capacity];
+        this.visitor = new RecordFrameVisitor();
+    }
+
+    @Override
+    protected void operate(IsolateThread isolateThread) {
+        if (JavaThreads.fromVMThread(isolateThread) != thread) {
+            /* The thread exited, and another thread was attached at the same address. */
+            return;
+        }
+        threadFound = true;
+        JavaStackWalker.walkThread(isolateThread, visitor);
+    }
+
+    ArrayList<StackTraceElement> decode() {
+        BuildStackTraceVisitor buildVisitor = new BuildStackTraceVisitor(false, SubstrateOptions.MaxJavaStackTraceDepth.getValue());
+        for (int i = 0; i < count; i++) {
+            CodePointer ip = WordFactory.pointer(ips[i]);
+            boolean more;
+            if (deoptimizedFrames[i] != null) {
+                more = buildVisitor.visitFrame(WordFactory.nullPointer(), ip, WordFactory.nullPointer(), deoptimizedFrames[i]);
+            } else {
+                more = decodeFrame(buildVisitor, ip, WordFactory.pointer(codeInfos[i]), tethers[i]);
+            }
+            if (!more) {
+                break;
+            }
+        }
+        return buildVisitor.trace;
+    }
+
+    @Uninterruptible(reason = "Must prevent the GC from freeing the CodeInfo object.")
+    private static boolean decodeFrame(JavaStackFrameVisitor buildVisitor, CodePointer ip, UntetheredCodeInfo untetheredInfo, Object recordedTether) {
+        Object tether = CodeInfoAccess.acquireTether(untetheredInfo);
+        try {
+            assert tether == recordedTether;
+            return callVisitor(buildVisitor, ip, CodeInfoAccess.convert(untetheredInfo, tether));
+        } finally {
+            CodeInfoAccess.releaseTether(untetheredInfo, tether);
+        }
+    }
+
+    @Uninterruptible(reason = "Wraps the now safe call to the interruptible visitor.", callerMustBe = true, calleeMustBe = false)
+    private static boolean callVisitor(JavaStackFrameVisitor buildVisitor, CodePointer ip, CodeInfo info) {
+        return buildVisitor.visitFrame(WordFactory.nullPointer(), ip, info, null);
+    }
+
+    private final class RecordFrameVisitor extends StackFrameVisitor {
+        @Override
+        protected boolean visitFrame(Pointer sp, CodePointer ip, CodeInfo codeInfo, DeoptimizedFrame deoptimizedFrame) {
+            if (count == ips.length) {
+                overflowed = true;
+                return false;
+            }
+            ips[count] = ip.rawValue();
+            if (deoptimizedFrame != null) {
+                deoptimizedFrames[count] = deoptimizedFrame;
+            } else {
+                codeInfos[count] = codeInfo.rawValue();
+                tethers[count] = UntetheredCodeInfoAccess.getTetherUnsafe(codeInfo);
+            }
+            count++;
+            return true;
+        }
+    }
+}
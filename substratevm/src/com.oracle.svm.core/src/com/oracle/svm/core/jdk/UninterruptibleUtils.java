@@ -312,6 +312,11 @@ public class UninterruptibleUtils {
         public boolean compareAndSet(T expected, T update) {
             return UNSAFE.compareAndSwapLong(this, VALUE_OFFSET, expected.rawValue(), update.rawValue());
         }
+
+        @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+        public T getAndSet(T newValue) {
+            return WordFactory.pointer(UNSAFE.getAndSetLong(this, VALUE_OFFSET, newValue.rawValue()));
+        }
     }
 
     public static class AtomicReference<T> {
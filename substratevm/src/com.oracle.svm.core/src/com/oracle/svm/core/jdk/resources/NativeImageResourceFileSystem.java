@@ -360,6 +360,11 @@ public class NativeImageResourceFileSystem extends FileSystem {
                 if (e == null || e.isDir()) {
                     throw new NoSuchFileException(getString(path));
                 }
+                byte[] bytes = getReadOnlyBytes(e);
+                if (bytes != null) {
+                    /* The channel is read-only, so it can use the entry data without a copy. */
+                    return new ByteArrayChannel(bytes, true);
+                }
                 try (InputStream is = getInputStream(e)) {
                     return new ByteArrayChannel(NativeImageResourceFileSystemUtil.inputStreamToByteArray(is), true);
                 }
@@ -723,6 +728,17 @@ public class NativeImageResourceFileSystem extends FileSystem {
         return eis;
     }
 
+    /**
+     * Returns the data of the entry if it is held in memory, or null if it is stored in a file. The
+     * returned array must not be modified.
+     */
+    private static byte[] getReadOnlyBytes(Entry e) {
+        if (e.type == Entry.NEW || e.type == Entry.COPY) {
+            return e.getBytes(true);
+        }
+        return null;
+    }
+
     private OutputStream getOutputStream(Entry e) {
         e.getBytes(false);
         if (e.lastModifiedTime == -1) {
@@ -830,6 +846,14 @@ public class NativeImageResourceFileSystem extends FileSystem {
                 throw new NoSuchFileException(getString(path));
             }
 
+            if (!forWrite) {
+                byte[] bytes = getReadOnlyBytes(e);
+                if (bytes != null) {
+                    /* Read directly from the entry data instead of copying it to a temporary file. */
+                    return new ReadOnlyByteArrayFileChannel(bytes);
+                }
+            }
+
             final boolean isFCH = (e != null && e.type == Entry.FILE_CH);
             final Path tmpFile = isFCH ? e.file : getTempPathForEntry(path);
             final FileChannel fch = tmpFile.getFileSystem().provider().newFileChannel(tmpFile, options, attrs);
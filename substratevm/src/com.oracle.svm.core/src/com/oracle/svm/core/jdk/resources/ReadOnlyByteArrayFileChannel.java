@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.jdk.resources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A read-only {@link FileChannel} that reads directly from the byte array of a resource in the
+ * image heap. The array is never copied, so opening a channel for a large resource does not
+ * allocate memory proportional to the resource size and only the pages that are actually read are
+ * touched.
+ */
+final class ReadOnlyByteArrayFileChannel extends FileChannel {
+
+    private final byte[] buf;
+    /** The current position of this channel, guarded by {@code this}. */
+    private long pos;
+
+    ReadOnlyByteArrayFileChannel(byte[] buf) {
+        this.buf = buf;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!isOpen()) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    private int readAt(ByteBuffer dst, long position) {
+        if (position >= buf.length) {
+            return -1;
+        }
+        int n = (int) Math.min(dst.remaining(), buf.length - position);
+        dst.put(buf, (int) position, n);
+        return n;
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        int n = readAt(dst, pos);
+        if (n > 0) {
+            pos += n;
+        }
+        return n;
+    }
+
+    @Override
+    public synchronized long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        ensureOpen();
+        if (offset < 0 || length < 0 || offset > dsts.length - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (pos >= buf.length) {
+            return -1;
+        }
+        long total = 0;
+        for (int i = offset; i < offset + length && pos < buf.length; i++) {
+            int n = readAt(dsts[i], pos);
+            if (n > 0) {
+                pos += n;
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("Negative position");
+        }
+        ensureOpen();
+        return readAt(dst, position);
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        ensureOpen();
+        return pos;
+    }
+
+    @Override
+    public synchronized FileChannel position(long newPosition) throws IOException {
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position");
+        }
+        ensureOpen();
+        pos = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return buf.length;
+    }
+
+    @Override
+    public FileChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        ensureOpen();
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException();
+        }
+        ensureOpen();
+        if (position >= buf.length) {
+            return 0;
+        }
+        int n = (int) Math.min(count, buf.length - position);
+        return target.write(ByteBuffer.wrap(buf, (int) position, n).asReadOnlyBuffer());
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+        return tryLock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        if (!shared) {
+            throw new NonWritableChannelException();
+        }
+        ensureOpen();
+        /* Resources in the image heap cannot be modified, so a shared lock never conflicts. */
+        return new FileLock(this, position, size, true) {
+            private volatile boolean valid = true;
+
+            @Override
+            public boolean isValid() {
+                return valid && channel().isOpen();
+            }
+
+            @Override
+            public void release() {
+                valid = false;
+            }
+        };
+    }
+
+    @Override
+    protected void implCloseChannel() {
+    }
+}
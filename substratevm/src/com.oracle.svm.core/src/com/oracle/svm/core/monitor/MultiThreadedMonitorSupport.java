@@ -43,6 +43,7 @@ import org.graalvm.compiler.core.common.SuppressFBWarnings;
 import org.graalvm.compiler.serviceprovider.GraalUnsafeAccess;
 import org.graalvm.compiler.serviceprovider.JavaVersionUtil;
 import org.graalvm.compiler.word.BarrieredAccess;
+import org.graalvm.compiler.word.Word;
 import org.graalvm.nativeimage.IsolateThread;
 import org.graalvm.nativeimage.Platform;
 import org.graalvm.nativeimage.Platforms;
@@ -61,6 +62,7 @@ import com.oracle.svm.core.snippets.SubstrateForeignCallTarget;
 import com.oracle.svm.core.stack.StackOverflowCheck;
 import com.oracle.svm.core.thread.JavaContinuations;
 import com.oracle.svm.core.thread.JavaThreads;
+import com.oracle.svm.core.thread.ThreadBlockingListenerSupport;
 import com.oracle.svm.core.thread.ThreadStatus;
 import com.oracle.svm.core.thread.VMOperationControl;
 import com.oracle.svm.core.threadlocal.FastThreadLocalFactory;
@@ -194,11 +196,28 @@ public class MultiThreadedMonitorSupport extends MonitorSupport {
     private static long SYNC_STATE_FIELD_OFFSET = -1;
 
     /**
-     * Secondary storage for monitor slots. Synchronized to prevent concurrent access and
-     * modification.
+     * Number of independently locked parts of the {@link #additionalMonitors secondary storage}.
+     * Must be a power of 2.
      */
-    private final Map<Object, ReentrantLock> additionalMonitors = new WeakIdentityHashMap<>();
-    private final ReentrantLock additionalMonitorsLock = new ReentrantLock();
+    private static final int ADDITIONAL_MONITORS_STRIPES = 16;
+
+    /**
+     * Secondary storage for monitor slots. The storage is split into several maps, selected by the
+     * identity hash code of the object, so that threads synchronizing on unrelated objects without
+     * a monitor slot do not all serialize on the same lock. Each map is guarded by the lock with
+     * the same index in {@link #additionalMonitorsLocks}.
+     */
+    @SuppressWarnings("unchecked") //
+    private final Map<Object, ReentrantLock>[] additionalMonitors = new Map[ADDITIONAL_MONITORS_STRIPES];
+    private final ReentrantLock[] additionalMonitorsLocks = new ReentrantLock[ADDITIONAL_MONITORS_STRIPES];
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public MultiThreadedMonitorSupport() {
+        for (int i = 0; i < ADDITIONAL_MONITORS_STRIPES; i++) {
+            additionalMonitors[i] = new WeakIdentityHashMap<>();
+            additionalMonitorsLocks[i] = new ReentrantLock();
+        }
+    }
 
     @Override
     public int maybeAdjustNewParkStatus(int status) {
@@ -260,7 +279,18 @@ public class MultiThreadedMonitorSupport extends MonitorSupport {
     @Override
     public void monitorEnter(Object obj) {
         ReentrantLock lockObject = getOrCreateMonitor(obj, true);
-        lockObject.lock();
+        ThreadBlockingListenerSupport listeners = ThreadBlockingListenerSupport.get();
+        if (!listeners.hasListeners()) {
+            lockObject.lock();
+        } else if (!lockObject.tryLock()) {
+            /* The monitor is contended, so report how long this thread was blocked on it. */
+            Thread previousOwner = SubstrateUtil.cast(SubstrateUtil.cast(lockObject, Target_java_util_concurrent_locks_ReentrantLock.class).sync,
+                            Target_java_util_concurrent_locks_AbstractOwnableSynchronizer.class).exclusiveOwnerThread;
+            long startNanos = System.nanoTime();
+            lockObject.lock();
+            long address = Word.objectToUntrackedPointer(obj).rawValue();
+            listeners.afterMonitorEnter(obj.getClass(), address, previousOwner == null ? 0L : previousOwner.getId(), startNanos, System.nanoTime());
+        }
 
         onMonitorLocked();
     }
@@ -452,26 +482,26 @@ public class MultiThreadedMonitorSupport extends MonitorSupport {
 
     protected ReentrantLock getOrCreateMonitorFromMap(Object obj, boolean createIfNotExisting) {
         assert obj.getClass() != Target_java_lang_ref_ReferenceQueue_Lock.class : "ReferenceQueue.Lock must have a monitor field or we can deadlock accessing WeakIdentityHashMap below";
-        VMError.guarantee(!additionalMonitorsLock.isHeldByCurrentThread(),
+        int stripe = System.identityHashCode(obj) & (ADDITIONAL_MONITORS_STRIPES - 1);
+        Map<Object, ReentrantLock> monitors = additionalMonitors[stripe];
+        ReentrantLock monitorsLock = additionalMonitorsLocks[stripe];
+        VMError.guarantee(!monitorsLock.isHeldByCurrentThread(),
                         "Recursive manipulation of the additionalMonitors map can lead to table corruptions and double insertion of a monitor for the same object");
 
-        /*
-         * Lock the monitor map and maybe add a monitor for this object. This serialization might be
-         * a scalability problem.
-         */
-        additionalMonitorsLock.lock();
+        /* Lock the part of the monitor map for this object and maybe add a monitor. */
+        monitorsLock.lock();
         try {
-            ReentrantLock existingMonitor = additionalMonitors.get(obj);
+            ReentrantLock existingMonitor = monitors.get(obj);
             if (existingMonitor != null || !createIfNotExisting) {
                 assert existingMonitor == null || isMonitorLock(existingMonitor);
                 return existingMonitor;
             }
             ReentrantLock newMonitor = newMonitorLock();
-            ReentrantLock previousEntry = additionalMonitors.put(obj, newMonitor);
+            ReentrantLock previousEntry = monitors.put(obj, newMonitor);
             VMError.guarantee(previousEntry == null, "Replaced monitor in secondary storage map");
             return newMonitor;
         } finally {
-            additionalMonitorsLock.unlock();
+            monitorsLock.unlock();
         }
     }
 
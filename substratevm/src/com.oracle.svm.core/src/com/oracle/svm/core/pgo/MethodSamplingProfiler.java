@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.pgo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.compiler.options.Option;
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.nativeimage.c.function.CodePointer;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.word.Pointer;
+
+import com.oracle.svm.core.ImageProfiles;
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.annotate.UnknownObjectField;
+import com.oracle.svm.core.code.CodeInfo;
+import com.oracle.svm.core.code.CodeInfoAccess;
+import com.oracle.svm.core.code.CodeInfoTable;
+import com.oracle.svm.core.deopt.DeoptimizedFrame;
+import com.oracle.svm.core.jdk.RuntimeSupport;
+import com.oracle.svm.core.log.Log;
+import com.oracle.svm.core.option.HostedOptionKey;
+import com.oracle.svm.core.option.RuntimeOptionKey;
+import com.oracle.svm.core.stack.JavaStackWalker;
+import com.oracle.svm.core.stack.StackFrameVisitor;
+import com.oracle.svm.core.thread.ThreadHandshake;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Collects a method-level execution profile by periodically sampling the top frame of all threads.
+ * The threads are sampled with {@linkplain ThreadHandshake handshakes}, so only one thread at a
+ * time is stopped. For each sample, the compiled method that contains the instruction pointer is
+ * counted, i.e., the outermost method of the compilation unit that would be placed in the code
+ * cache. It is looked up in a table of the start offsets of all compiled methods, which the image
+ * builder fills in after the code layout. Methods are identified by their declaring class, name
+ * and parameter types, so overloads are counted separately. The profile is dumped as text when
+ * the application exits:
+ *
+ * <pre>
+ * # samples   method
+ * 1234        java.util.HashMap.getNode(int, java.lang.Object)
+ * </pre>
+ *
+ * The profile is read again by the image builder when the {@link Options#PGO} option is set, which
+ * places the hot methods next to each other at the start of the code section.
+ */
+public final class MethodSamplingProfiler extends ImageProfiles {
+
+    public static class Options {
+        @Option(help = "Build an image that samples the executed methods and writes a profile at exit, for use with -H:PGO")//
+        public static final HostedOptionKey<Boolean> PGOInstrument = new HostedOptionKey<>(false);
+
+        @Option(help = "Use the method profile written by an image built with -H:+PGOInstrument to optimize the image")//
+        public static final HostedOptionKey<String> PGO = new HostedOptionKey<>("");
+
+        @Option(help = "The interval in milliseconds between two samples of the executed methods")//
+        public static final RuntimeOptionKey<Integer> PGOSamplingInterval = new RuntimeOptionKey<>(10);
+
+        @Option(help = "The file that the method profile is written to when the application exits")//
+        public static final RuntimeOptionKey<String> PGOProfileFile = new RuntimeOptionKey<>("default.iprof");
+    }
+
+    /** Upper bound for the number of threads that are sampled in one round. */
+    private static final int MAX_SAMPLES_PER_ROUND = 1024;
+
+    /** The offsets of the compiled methods from the start of the image code, in ascending order. */
+    @UnknownObjectField(types = {int[].class}) private int[] methodStarts;
+    /** The {@linkplain #methodKey keys} of the compiled methods, in the order of their offsets. */
+    @UnknownObjectField(types = {String[].class}) private String[] methodKeys;
+
+    private final Map<String, Long> samples = new HashMap<>();
+    private final SampleOperation sampleOperation = new SampleOperation();
+    private volatile boolean stopped;
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    MethodSamplingProfiler() {
+    }
+
+    static MethodSamplingProfiler get() {
+        return (MethodSamplingProfiler) ImageSingletons.lookup(ImageProfiles.class);
+    }
+
+    /** Returns the name under which the samples of the method are stored in the profile. */
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public static String methodKey(ResolvedJavaMethod method) {
+        return method.format("%H.%n(%P)");
+    }
+
+    /** Sets the compiled methods of the image, sorted by their offset from the code start. */
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public static void setCompiledMethods(int[] starts, String[] keys) {
+        assert starts.length == keys.length;
+        MethodSamplingProfiler profiler = get();
+        profiler.methodStarts = starts;
+        profiler.methodKeys = keys;
+    }
+
+    void start() {
+        Thread thread = new Thread(this::run, "Method Sampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    private void run() {
+        while (!stopped) {
+            try {
+                Thread.sleep(Math.max(1, Options.PGOSamplingInterval.getValue()));
+            } catch (InterruptedException e) {
+                return;
+            }
+            sampleOperation.count = 0;
+            ThreadHandshake.executeForAllThreads(sampleOperation);
+            recordSamples(sampleOperation.ips, sampleOperation.count);
+        }
+    }
+
+    private void recordSamples(long[] ips, int count) {
+        long codeStart = CodeInfoAccess.getCodeStart(CodeInfoTable.getImageCodeInfo()).rawValue();
+        for (int i = 0; i < count; i++) {
+            int index = Arrays.binarySearch(methodStarts, (int) (ips[i] - codeStart));
+            if (index < 0) {
+                /* The instruction pointer is inside the method that starts before it. */
+                index = -index - 2;
+                if (index < 0) {
+                    continue;
+                }
+            }
+            String method = methodKeys[index];
+            synchronized (samples) {
+                samples.merge(method, 1L, Long::sum);
+            }
+        }
+    }
+
+    @Override
+    protected String computeProfiles() {
+        List<Map.Entry<String, Long>> entries;
+        synchronized (samples) {
+            entries = new ArrayList<>(samples.entrySet());
+        }
+        entries.sort((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("# samples\tmethod\n");
+        for (Map.Entry<String, Long> entry : entries) {
+            sb.append(entry.getValue()).append('\t').append(entry.getKey()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    void writeProfile() {
+        String file = Options.PGOProfileFile.getValue();
+        try {
+            Files.write(Paths.get(file), computeProfiles().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.log().string("Failed to write the method profile to ").string(file).string(": ").string(e.getMessage()).newline();
+        }
+    }
+
+    /** Records the instruction pointer of the top image code frame of each thread. */
+    private static final class SampleOperation extends ThreadHandshake.Operation {
+        final long[] ips = new long[MAX_SAMPLES_PER_ROUND];
+        int count;
+        private final TopFrameVisitor visitor = new TopFrameVisitor();
+
+        SampleOperation() {
+            super("MethodSampling");
+        }
+
+        @Override
+        protected void operate(IsolateThread thread) {
+            if (count == ips.length) {
+                return;
+            }
+            visitor.ip = 0;
+            JavaStackWalker.walkThread(thread, visitor);
+            if (visitor.ip != 0) {
+                ips[count++] = visitor.ip;
+            }
+        }
+    }
+
+    private static final class TopFrameVisitor extends StackFrameVisitor {
+        long ip;
+
+        @Override
+        protected boolean visitFrame(Pointer sp, CodePointer frameIP, CodeInfo codeInfo, DeoptimizedFrame deoptimizedFrame) {
+            if (deoptimizedFrame == null && codeInfo.equal(CodeInfoTable.getImageCodeInfo()) && CodeInfoAccess.contains(codeInfo, frameIP)) {
+                ip = frameIP.rawValue();
+            }
+            /* Only the top frame is of interest. */
+            return false;
+        }
+    }
+}
+
+@AutomaticFeature
+class MethodSamplingProfilerFeature implements Feature {
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return MethodSamplingProfiler.Options.PGOInstrument.getValue();
+    }
+
+    @Override
+    public void afterRegistration(AfterRegistrationAccess access) {
+        ImageSingletons.add(ImageProfiles.class, new MethodSamplingProfiler());
+        RuntimeSupport.getRuntimeSupport().addStartupHook(() -> MethodSamplingProfiler.get().start());
+        RuntimeSupport.getRuntimeSupport().addShutdownHook(() -> {
+            MethodSamplingProfiler profiler = MethodSamplingProfiler.get();
+            profiler.stop();
+            profiler.writeProfile();
+        });
+    }
+}
@@ -590,11 +590,8 @@ public abstract class JavaThreads {
             return StackTraceUtils.getStackTrace(false, KnownIntrinsics.readCallerStackPointer());
         }
 
-        StackTraceElement[][] result = new StackTraceElement[1][0];
-        JavaVMOperation.enqueueBlockingSafepoint("getStackTrace", () -> {
-            result[0] = getStackTrace(getIsolateThread(thread));
-        });
-        return result[0];
+        /* Only the thread itself needs to be stopped, not all threads. */
+        return StackTraceUtils.getStackTraceAtHandshake(thread);
     }
 
     static Map<Thread, StackTraceElement[]> getAllStackTraces() {
@@ -191,6 +191,7 @@ public final class Safepoint {
      * <ul>
      * <li>to do a thread state transition from native state to Java or VM state.</li>
      * <li>to suspend the thread at a safepoint and resume execution after the safepoint.</li>
+     * <li>to suspend the thread while a {@link ThreadHandshake} operation is executed for it.</li>
      * <li>to execute the recurring callback periodically.</li>
      * </ul>
      **/
@@ -203,7 +204,7 @@ public final class Safepoint {
             assert !ThreadingSupportImpl.isRecurringCallbackRegistered(myself) || ThreadingSupportImpl.isRecurringCallbackPaused();
         } else {
             do {
-                if (Master.singleton().getRequestingThread().isNonNull()) {
+                if (Master.singleton().getRequestingThread().isNonNull() || ThreadHandshake.isRequested(myself)) {
                     Statistics.incFrozen();
                     freezeAtSafepoint(newStatus, callerHasJavaFrameAnchor);
                     Statistics.incThawed();
@@ -343,7 +344,7 @@ public final class Safepoint {
      */
     @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     static void setSafepointRequested(IsolateThread vmThread, int value) {
-        assert StatusSupport.isStatusCreated(vmThread) || VMOperationControl.mayExecuteVmOperations();
+        assert StatusSupport.isStatusCreated(vmThread) || VMOperationControl.mayExecuteVmOperations() || VMThreads.THREAD_MUTEX.isOwner();
         assert value > 0;
         safepointRequested.setVolatile(vmThread, value);
     }
@@ -584,16 +585,18 @@ public final class Safepoint {
                 VMThreads.THREAD_MUTEX.lock();
             }
 
+            long startNanos = System.nanoTime();
             requestingThread = CurrentIsolate.getCurrentThread();
             Statistics.reset();
             Statistics.setStartNanos();
             ImageSingletons.lookup(Heap.class).prepareForSafepoint();
             safepointState = SYNCHRONIZING;
-            requestSafepoints(reason);
+            int threadCount = requestSafepoints(reason);
             waitForSafepoints(reason);
             Statistics.setFrozenNanos();
             safepointState = AT_SAFEPOINT;
             safepointId = safepointId.add(1);
+            SafepointListenerSupport.get().afterFreeze(safepointId, threadCount, startNanos, System.nanoTime());
             return lock;
         }
 
@@ -603,11 +606,13 @@ public final class Safepoint {
             assert SubstrateOptions.MultiThreaded.getValue() : "Should only thaw from a safepoint when multi-threaded.";
             assert VMOperationControl.mayExecuteVmOperations();
 
+            long startNanos = System.nanoTime();
             safepointState = NOT_AT_SAFEPOINT;
             releaseSafepoints(reason);
             ImageSingletons.lookup(Heap.class).endSafepoint();
             Statistics.setThawedNanos();
             requestingThread = WordFactory.nullPointer();
+            SafepointListenerSupport.get().afterThaw(safepointId, startNanos, System.nanoTime());
 
             if (unlock) {
                 VMThreads.THREAD_MUTEX.unlock();
@@ -621,13 +626,17 @@ public final class Safepoint {
             return thread == CurrentIsolate.getCurrentThread();
         }
 
-        /** Send each of the threads (except myself) a request to come to a safepoint. */
-        private static void requestSafepoints(String reason) {
+        /**
+         * Send each of the threads (except myself) a request to come to a safepoint. Returns the
+         * number of threads that were asked to come to the safepoint.
+         */
+        private static int requestSafepoints(String reason) {
             VMThreads.THREAD_MUTEX.assertIsOwner("Must hold mutex while requesting a safepoint.");
             final Log trace = Log.noopLog().string("[Safepoint.Master.requestSafepoints:  reason: ").string(reason);
 
             // Walk the threads list and ask each thread (except myself) to come to a safepoint.
             // TODO: Do I always bring *all* threads to a safepoint? Could I stop some of them?
+            int requested = 0;
             for (IsolateThread vmThread = VMThreads.firstThread(); vmThread.isNonNull(); vmThread = VMThreads.nextThread(vmThread)) {
                 if (isMyself(vmThread)) {
                     continue;
@@ -640,12 +649,14 @@ public final class Safepoint {
                     continue;
                 }
                 requestSafepoint(vmThread);
+                requested++;
             }
             trace.string("  returns");
             if (trace.isEnabled() && Statistics.Options.GatherSafepointStatistics.getValue()) {
                 trace.string(" with requests: ").signed(Statistics.getRequested());
             }
             trace.string("]").newline();
+            return requested;
         }
 
         /**
@@ -655,7 +666,7 @@ public final class Safepoint {
          * other thread will honor that request. It can also decide to ignore it (usually due to
          * race conditions that can't be avoided for performance reasons).
          */
-        private static void requestSafepoint(IsolateThread vmThread) {
+        static void requestSafepoint(IsolateThread vmThread) {
             if (ThreadingSupportImpl.isRecurringCallbackSupported()) {
                 int value;
                 do {
@@ -675,7 +686,7 @@ public final class Safepoint {
          * freeze at the transition, even though their {@link Safepoint#safepointRequested} counter
          * was not negated.
          */
-        private static void restoreSafepointRequestedValue(IsolateThread vmThread) {
+        static void restoreSafepointRequestedValue(IsolateThread vmThread) {
             int value = getSafepointRequested(vmThread);
             if (value < 0) {
                 /*
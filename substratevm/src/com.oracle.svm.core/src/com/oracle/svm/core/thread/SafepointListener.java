@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.thread;
+
+import org.graalvm.word.UnsignedWord;
+
+import com.oracle.svm.core.annotate.Uninterruptible;
+
+/**
+ * Notified by the thread that brings the system to a safepoint, once all other threads are frozen
+ * and once they were released again. The timestamps are {@link System#nanoTime()} values. Both
+ * methods are called while the threads mutex is held, so the listeners must neither allocate nor
+ * block.
+ */
+public interface SafepointListener {
+    @Uninterruptible(reason = "Called during a safepoint.")
+    void afterFreeze(UnsignedWord safepointId, int threadCount, long startNanos, long endNanos);
+
+    @Uninterruptible(reason = "Called during a safepoint.")
+    void afterThaw(UnsignedWord safepointId, long startNanos, long endNanos);
+}
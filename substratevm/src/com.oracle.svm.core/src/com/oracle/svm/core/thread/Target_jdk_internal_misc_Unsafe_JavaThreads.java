@@ -24,6 +24,10 @@
  */
 package com.oracle.svm.core.thread;
 
+import java.util.concurrent.locks.LockSupport;
+
+import org.graalvm.compiler.word.Word;
+
 import com.oracle.svm.core.annotate.Substitute;
 import com.oracle.svm.core.annotate.TargetClass;
 import com.oracle.svm.core.jdk.Package_jdk_internal_misc;
@@ -43,15 +47,27 @@ final class Target_jdk_internal_misc_Unsafe_JavaThreads {
      */
     @Substitute
     private void park(boolean isAbsolute, long time) {
+        ThreadBlockingListenerSupport listeners = ThreadBlockingListenerSupport.get();
+        boolean notifyListeners = listeners.hasListeners();
+        long startNanos = notifyListeners ? System.nanoTime() : 0L;
+        long delayNanos = 0L;
+
         /* Decide what kind of park I am doing. */
         if (!isAbsolute && time == 0L) {
             /* Park without deadline. */
             JavaThreads.park();
         } else {
             /* Park with deadline. */
-            final long delayNanos = TimeUtils.delayNanos(isAbsolute, time);
+            delayNanos = TimeUtils.delayNanos(isAbsolute, time);
             JavaThreads.park(delayNanos);
         }
+
+        if (notifyListeners) {
+            Object blocker = LockSupport.getBlocker(Thread.currentThread());
+            Class<?> parkedClass = blocker == null ? null : blocker.getClass();
+            long blockerAddress = blocker == null ? 0L : Word.objectToUntrackedPointer(blocker).rawValue();
+            listeners.afterPark(parkedClass, blockerAddress, delayNanos, startNanos, System.nanoTime());
+        }
         /*
          * Unsafe.park does not distinguish between timing out, being unparked, and being
          * interrupted, but the thread's interrupt status must be preserved.
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.thread;
+
+import org.graalvm.compiler.nodes.PauseNode;
+import org.graalvm.nativeimage.CurrentIsolate;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.SubstrateOptions;
+import com.oracle.svm.core.annotate.RestrictHeapAccess;
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.locks.VMMutex;
+import com.oracle.svm.core.thread.VMThreads.StatusSupport;
+import com.oracle.svm.core.threadlocal.FastThreadLocalFactory;
+import com.oracle.svm.core.threadlocal.FastThreadLocalInt;
+import com.oracle.svm.core.util.VMError;
+
+/**
+ * Executes an operation for a single thread while only that thread is stopped, instead of bringing
+ * all threads to a {@linkplain Safepoint safepoint}.
+ *
+ * The handshake uses the same mechanism as a safepoint, restricted to one thread: the requesting
+ * thread locks {@linkplain VMThreads#THREAD_MUTEX}, negates the target thread's
+ * {@linkplain Safepoint#safepointRequested safepoint counter} and waits until the target thread is
+ * in native code. A thread in Java code blocks on the mutex at its next safepoint check, a thread
+ * that is already in native code is not interrupted at all and blocks on the mutex only if it tries
+ * to return to Java code while the operation is executed on its behalf. Holding the mutex also
+ * excludes safepoints and other handshakes, so a handshake operation observes the target thread
+ * with the same guarantees as a VM operation at a safepoint.
+ *
+ * Because the thread mutex is held while the operation executes, the operation must not allocate
+ * and must not block. Operations that need to allocate must still use a {@link JavaVMOperation}.
+ */
+public final class ThreadHandshake {
+
+    /** Non-zero if a handshake operation is pending for the thread. */
+    private static final FastThreadLocalInt handshakeRequested = FastThreadLocalFactory.createInt();
+
+    private ThreadHandshake() {
+    }
+
+    /** An operation that is executed for one thread while that thread is stopped. */
+    public abstract static class Operation {
+        private final String name;
+
+        protected Operation(String name) {
+            this.name = name;
+        }
+
+        public final String getName() {
+            return name;
+        }
+
+        /**
+         * Executes the operation for the given thread. The thread is stopped, and its stack can be
+         * walked with {@link com.oracle.svm.core.stack.JavaStackWalker#walkThread}.
+         */
+        @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, reason = "Executed while holding the thread mutex.")
+        protected abstract void operate(IsolateThread thread);
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    static boolean isRequested(IsolateThread thread) {
+        return handshakeRequested.getVolatile(thread) != 0;
+    }
+
+    /**
+     * Executes the operation for the given thread, which must not be the current thread. The
+     * thread is looked up in the list of attached threads while holding
+     * {@linkplain VMThreads#THREAD_MUTEX}, so it can be a thread that detached in the meantime.
+     *
+     * @return false if the thread is not attached or exiting, in which case the operation was not
+     *         executed
+     */
+    public static boolean execute(IsolateThread thread, Operation operation) {
+        VMError.guarantee(thread.notEqual(CurrentIsolate.getCurrentThread()), "A thread cannot handshake itself.");
+        if (VMOperation.isInProgressAtSafepoint()) {
+            /* All threads are already stopped. */
+            operation.operate(thread);
+            return true;
+        }
+        VMMutex lock = lock();
+        try {
+            return isAttached(thread) && executeLocked(thread, operation);
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    /**
+     * Executes the operation for each thread except the current thread, stopping only one thread
+     * at a time. The attached threads are recorded first, and {@linkplain VMThreads#THREAD_MUTEX}
+     * is then locked separately for each of them, so that threads can attach and detach between
+     * two handshakes. A thread that detached in the meantime is skipped, and a thread that
+     * attached in the meantime is not handshaked.
+     *
+     * @return the number of threads for which the operation was executed
+     */
+    public static int executeForAllThreads(Operation operation) {
+        IsolateThread current = CurrentIsolate.getCurrentThread();
+        int count = 0;
+        if (VMOperation.isInProgressAtSafepoint()) {
+            for (IsolateThread thread = VMThreads.firstThread(); thread.isNonNull(); thread = VMThreads.nextThread(thread)) {
+                if (thread.notEqual(current)) {
+                    operation.operate(thread);
+                    count++;
+                }
+            }
+            return count;
+        }
+        long[] threads = snapshotThreads(current);
+        for (int i = 0; i < threads.length && threads[i] != 0; i++) {
+            if (execute(WordFactory.pointer(threads[i]), operation)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the addresses of all attached threads except the current thread, followed by zeros.
+     * The array is allocated before the mutex is locked, and allocated again with a larger size if
+     * more threads attached in the meantime.
+     */
+    private static long[] snapshotThreads(IsolateThread current) {
+        int capacity = 32;
+        while (true) {
+            long[] threads = new long[capacity];
+            int count = 0;
+            VMMutex lock = lock();
+            try {
+                for (IsolateThread thread = VMThreads.firstThread(); thread.isNonNull(); thread = VMThreads.nextThread(thread)) {
+                    if (thread.notEqual(current)) {
+                        if (count == threads.length) {
+                            count = -1;
+                            break;
+                        }
+                        threads[count++] = thread.rawValue();
+                    }
+                }
+            } finally {
+                unlock(lock);
+            }
+            if (count >= 0) {
+                return threads;
+            }
+            capacity *= 2;
+        }
+    }
+
+    private static VMMutex lock() {
+        assert SubstrateOptions.MultiThreaded.getValue() : "Handshakes are only needed when multi-threaded.";
+        VMThreads.THREAD_MUTEX.guaranteeNotOwner("Handshakes lock the thread mutex.");
+        /* Recurring callbacks execute arbitrary code, which must not run while we hold the mutex. */
+        ThreadingSupportImpl.pauseRecurringCallback("Handshake holds the thread mutex.");
+        return VMThreads.THREAD_MUTEX.lock();
+    }
+
+    private static void unlock(VMMutex lock) {
+        lock.unlock();
+        ThreadingSupportImpl.resumeRecurringCallbackAtNextSafepoint();
+    }
+
+    private static boolean isAttached(IsolateThread thread) {
+        for (IsolateThread cur = VMThreads.firstThread(); cur.isNonNull(); cur = VMThreads.nextThread(cur)) {
+            if (cur.equal(thread)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean executeLocked(IsolateThread thread, Operation operation) {
+        VMThreads.THREAD_MUTEX.assertIsOwner("Must hold mutex while executing a handshake.");
+        if (StatusSupport.isStatusIgnoreSafepoints(thread)) {
+            return false;
+        }
+
+        long startNanos = System.nanoTime();
+        boolean stopped = stop(thread);
+        try {
+            if (!stopped) {
+                return false;
+            }
+            Statistics.recordTimeToStop(System.nanoTime() - startNanos);
+            operation.operate(thread);
+            return true;
+        } finally {
+            release(thread, stopped);
+        }
+    }
+
+    /**
+     * Requests the thread to stop and waits until it is in native code, then marks it as being at
+     * a safepoint so that it cannot return to Java code.
+     */
+    private static boolean stop(IsolateThread thread) {
+        handshakeRequested.setVolatile(thread, 1);
+        Safepoint.Master.requestSafepoint(thread);
+        while (true) {
+            if (StatusSupport.isStatusIgnoreSafepoints(thread)) {
+                /* The thread started exiting and will never stop at a safepoint again. */
+                return false;
+            }
+            int status = StatusSupport.getStatusVolatile(thread);
+            if (status == StatusSupport.STATUS_IN_NATIVE) {
+                if (StatusSupport.compareAndSetNativeToSafepoint(thread)) {
+                    return true;
+                }
+            } else if (Safepoint.getSafepointRequested(thread) > 0) {
+                /* Re-request in case of a lost update. */
+                Safepoint.Master.requestSafepoint(thread);
+            }
+            PauseNode.pause();
+        }
+    }
+
+    private static void release(IsolateThread thread, boolean stopped) {
+        if (stopped) {
+            Safepoint.Master.restoreSafepointRequestedValue(thread);
+        }
+        handshakeRequested.setVolatile(thread, 0);
+        if (stopped) {
+            StatusSupport.setStatusNative(thread);
+        }
+    }
+
+    /**
+     * Time-to-stop statistics of handshakes, gathered when
+     * {@link Safepoint.Statistics.Options#GatherSafepointStatistics} is enabled. Only updated while
+     * holding {@linkplain VMThreads#THREAD_MUTEX}.
+     */
+    public static final class Statistics {
+        /** The number of threads that have been stopped for a handshake. */
+        private static long handshakes;
+        /** The sum of the time it took to stop the threads. */
+        private static long totalTimeToStopNanos;
+        /** The longest time it took to stop a thread. */
+        private static long maxTimeToStopNanos;
+
+        private Statistics() {
+        }
+
+        static void recordTimeToStop(long nanos) {
+            if (Safepoint.Statistics.Options.GatherSafepointStatistics.getValue()) {
+                handshakes++;
+                totalTimeToStopNanos += nanos;
+                maxTimeToStopNanos = Math.max(maxTimeToStopNanos, nanos);
+            }
+        }
+
+        public static long getHandshakes() {
+            return handshakes;
+        }
+
+        public static long getTotalTimeToStopNanos() {
+            return totalTimeToStopNanos;
+        }
+
+        public static long getMaxTimeToStopNanos() {
+            return maxTimeToStopNanos;
+        }
+    }
+}
@@ -659,13 +659,15 @@ public class NativeImageGenerator {
                 try (DebugContext.Scope buildScope = debug.scope("CreateImage", codeCacheProvider)) {
                     try (StopTimer t = new Timer(imageName, "image").start()) {
 
-                        // Start building the model of the native image heap.
-                        heap.addInitialObjects();
-                        // Then build the model of the code cache, which can
-                        // add objects to the native image heap.
-                        codeCache.addConstantsToHeap();
-                        // Finish building the model of the native image heap.
-                        heap.addTrailingObjects();
+                        try (StopTimer ignored = new Timer(imageName, "(heap)").start()) {
+                            // Start building the model of the native image heap.
+                            heap.addInitialObjects();
+                            // Then build the model of the code cache, which can
+                            // add objects to the native image heap.
+                            codeCache.addConstantsToHeap();
+                            // Finish building the model of the native image heap.
+                            heap.addTrailingObjects();
+                        }
 
                         AfterHeapLayoutAccessImpl config = new AfterHeapLayoutAccessImpl(featureHandler, loader, heap, hMetaAccess, debug);
                         featureHandler.forEachFeature(feature -> feature.afterHeapLayout(config));
@@ -797,6 +799,14 @@ public class NativeImageGenerator {
                 bigbang.checkObjectsTimer.print();
                 bigbang.processFeaturesTimer.print();
 
+                if (bigbang.getParsingHints() != null) {
+                    try {
+                        bigbang.getParsingHints().write(aUniverse);
+                    } catch (IOException e) {
+                        throw UserError.abort(e, "Failed to write analysis parsing hints to %s", bigbang.getParsingHints().getFile());
+                    }
+                }
+
                 /* report the unsupported features by throwing UnsupportedFeatureException */
                 bigbang.getUnsupportedFeatures().report(bigbang);
                 bigbang.checkUserLimitations();
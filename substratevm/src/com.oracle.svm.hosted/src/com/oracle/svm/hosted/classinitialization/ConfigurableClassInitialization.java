@@ -43,6 +43,7 @@ import java.util.stream.Collectors;
 
 import org.graalvm.compiler.serviceprovider.GraalUnsafeAccess;
 
+import com.oracle.graal.pointsto.AnalysisParsingHints;
 import com.oracle.graal.pointsto.constraints.UnsupportedFeatures;
 import com.oracle.graal.pointsto.infrastructure.OriginalClassProvider;
 import com.oracle.graal.pointsto.reports.ReportUtils;
@@ -579,6 +580,14 @@ public class ConfigurableClassInitialization implements ClassInitializationSuppo
         if (existing != null) {
             return existing;
         }
+        if (memoize) {
+            /*
+             * The computation can run the class initializer, and the memoized kind cannot be
+             * changed anymore. A method parsed ahead of time need not be reachable, so it must not
+             * decide the kind of the classes it references.
+             */
+            AnalysisParsingHints.beforeParsingSideEffect();
+        }
 
         /* Initialize all annotations because we don't support parsing at run-time. */
         if (clazz.isAnnotation()) {
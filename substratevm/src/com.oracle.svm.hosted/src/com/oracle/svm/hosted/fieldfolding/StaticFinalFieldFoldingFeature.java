@@ -66,6 +66,7 @@ import org.graalvm.compiler.options.Option;
 import org.graalvm.compiler.phases.util.Providers;
 import org.graalvm.nativeimage.ImageSingletons;
 
+import com.oracle.graal.pointsto.AnalysisParsingHints;
 import com.oracle.graal.pointsto.BigBang;
 import com.oracle.graal.pointsto.meta.AnalysisField;
 import com.oracle.graal.pointsto.meta.AnalysisMethod;
@@ -237,6 +238,7 @@ final class StaticFinalFieldFoldingFeature implements GraalFeature {
         }
 
         if (optimizableFields != null && !optimizableFields.isEmpty()) {
+            AnalysisParsingHints.beforeParsingSideEffect();
             foldedFieldValues.putAll(optimizableFields);
         }
     }
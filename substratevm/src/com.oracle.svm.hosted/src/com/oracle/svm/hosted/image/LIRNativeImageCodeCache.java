@@ -25,6 +25,7 @@
 package com.oracle.svm.hosted.image;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -91,13 +92,14 @@ public class LIRNativeImageCodeCache extends NativeImageCodeCache {
             // Assign a location to all methods.
             assert codeCacheSize == 0;
             HostedMethod firstMethod = null;
-            for (Entry<HostedMethod, CompilationResult> entry : compilations.entrySet()) {
+            MethodProfile profile = MethodProfile.load();
+            Collection<HostedMethod> methods = profile != null ? profile.order(compilations.keySet()) : compilations.keySet();
+            for (HostedMethod method : methods) {
 
-                HostedMethod method = entry.getKey();
                 if (firstMethod == null) {
                     firstMethod = method;
                 }
-                CompilationResult compilation = entry.getValue();
+                CompilationResult compilation = compilations.get(method);
                 compilationsByStart.put(codeCacheSize, compilation);
                 method.setCodeAddressOffset(codeCacheSize);
                 codeCacheSize = NumUtil.roundUp(codeCacheSize + compilation.getTargetCodeSize(), SubstrateOptions.codeAlignment());
@@ -144,67 +146,73 @@ public class LIRNativeImageCodeCache extends NativeImageCodeCache {
          * by generating extra relocation records.
          */
 
-        // in each compilation result...
-        for (Entry<HostedMethod, CompilationResult> entry : compilations.entrySet()) {
-            HostedMethod method = entry.getKey();
-            CompilationResult compilation = entry.getValue();
+        /*
+         * Each compilation is patched in its own code array, and relocations are recorded in a
+         * concurrent map, so the compilations can be patched in parallel.
+         */
+        compilations.entrySet().parallelStream().forEach(entry -> patchMethod(entry.getKey(), entry.getValue(), relocs));
 
-            // the codecache-relative offset of the compilation
-            int compStart = method.getCodeAddressOffset();
-
-            // Build an index of PatchingAnnoations
-            Map<Integer, HostedPatcher> patches = new HashMap<>();
-            ByteBuffer targetCode = null;
-            for (CodeAnnotation codeAnnotation : compilation.getCodeAnnotations()) {
-                if (codeAnnotation instanceof HostedPatcher) {
-                    patches.put(codeAnnotation.getPosition(), (HostedPatcher) codeAnnotation);
-
-                } else if (codeAnnotation instanceof HostedImageHeapConstantPatch) {
-                    HostedImageHeapConstantPatch patch = (HostedImageHeapConstantPatch) codeAnnotation;
-
-                    ObjectInfo objectInfo = imageHeap.getObjectInfo(SubstrateObjectConstant.asObject(patch.constant));
-                    long objectAddress = objectInfo.getAddress();
-
-                    if (targetCode == null) {
-                        targetCode = ByteBuffer.wrap(compilation.getTargetCode()).order(target.arch.getByteOrder());
-                    }
-                    int originalValue = targetCode.getInt(patch.getPosition());
-                    long newValue = originalValue + objectAddress;
-                    VMError.guarantee(NumUtil.isInt(newValue), "Image heap size is limited to 2 GByte");
-                    targetCode.putInt(patch.getPosition(), (int) newValue);
-                }
+        /* The DebugContext is not thread safe, so dumping is done afterwards in this thread. */
+        for (Entry<HostedMethod, CompilationResult> entry : compilations.entrySet()) {
+            try (DebugContext.Scope ds = debug.scope("After Patching", entry.getKey().asJavaMethod())) {
+                debug.dump(DebugContext.BASIC_LEVEL, entry.getValue(), "After patching");
+            } catch (Throwable e) {
+                throw VMError.shouldNotReachHere(e);
             }
-            // ... patch direct call sites.
-            for (Infopoint infopoint : compilation.getInfopoints()) {
-                if (infopoint instanceof Call && ((Call) infopoint).direct) {
-                    Call call = (Call) infopoint;
-
-                    // NOTE that for the moment, we don't make static calls to external
-                    // (e.g. native) functions. So every static call site has a target
-                    // which is also in the code cache (a.k.a. a section-local call).
-                    // This will change, and we will have to case-split here... but not yet.
-                    int callTargetStart = ((HostedMethod) call.target).getCodeAddressOffset();
-
-                    // Patch a PC-relative call.
-                    // This code handles the case of section-local calls only.
-                    int pcDisplacement = callTargetStart - (compStart + call.pcOffset);
-                    patches.get(call.pcOffset).patch(call.pcOffset, pcDisplacement, compilation.getTargetCode());
+        }
+    }
+
+    private void patchMethod(HostedMethod method, CompilationResult compilation, RelocatableBuffer relocs) {
+        // the codecache-relative offset of the compilation
+        int compStart = method.getCodeAddressOffset();
+
+        // Build an index of PatchingAnnoations
+        Map<Integer, HostedPatcher> patches = new HashMap<>();
+        ByteBuffer targetCode = null;
+        for (CodeAnnotation codeAnnotation : compilation.getCodeAnnotations()) {
+            if (codeAnnotation instanceof HostedPatcher) {
+                patches.put(codeAnnotation.getPosition(), (HostedPatcher) codeAnnotation);
+
+            } else if (codeAnnotation instanceof HostedImageHeapConstantPatch) {
+                HostedImageHeapConstantPatch patch = (HostedImageHeapConstantPatch) codeAnnotation;
+
+                ObjectInfo objectInfo = imageHeap.getObjectInfo(SubstrateObjectConstant.asObject(patch.constant));
+                long objectAddress = objectInfo.getAddress();
+
+                if (targetCode == null) {
+                    targetCode = ByteBuffer.wrap(compilation.getTargetCode()).order(target.arch.getByteOrder());
                 }
+                int originalValue = targetCode.getInt(patch.getPosition());
+                long newValue = originalValue + objectAddress;
+                VMError.guarantee(NumUtil.isInt(newValue), "Image heap size is limited to 2 GByte");
+                targetCode.putInt(patch.getPosition(), (int) newValue);
             }
-            for (DataPatch dataPatch : compilation.getDataPatches()) {
-                Reference ref = dataPatch.reference;
-                /*
-                 * Constants are allocated offsets in a separate space, which can be emitted as
-                 * read-only (.rodata) section.
-                 */
-                patches.get(dataPatch.pcOffset).relocate(ref, relocs, compStart);
-            }
-            try (DebugContext.Scope ds = debug.scope("After Patching", method.asJavaMethod())) {
-                debug.dump(DebugContext.BASIC_LEVEL, compilation, "After patching");
-            } catch (Throwable e) {
-                throw VMError.shouldNotReachHere(e);
+        }
+        // ... patch direct call sites.
+        for (Infopoint infopoint : compilation.getInfopoints()) {
+            if (infopoint instanceof Call && ((Call) infopoint).direct) {
+                Call call = (Call) infopoint;
+
+                // NOTE that for the moment, we don't make static calls to external
+                // (e.g. native) functions. So every static call site has a target
+                // which is also in the code cache (a.k.a. a section-local call).
+                // This will change, and we will have to case-split here... but not yet.
+                int callTargetStart = ((HostedMethod) call.target).getCodeAddressOffset();
+
+                // Patch a PC-relative call.
+                // This code handles the case of section-local calls only.
+                int pcDisplacement = callTargetStart - (compStart + call.pcOffset);
+                patches.get(call.pcOffset).patch(call.pcOffset, pcDisplacement, compilation.getTargetCode());
             }
         }
+        for (DataPatch dataPatch : compilation.getDataPatches()) {
+            Reference ref = dataPatch.reference;
+            /*
+             * Constants are allocated offsets in a separate space, which can be emitted as
+             * read-only (.rodata) section.
+             */
+            patches.get(dataPatch.pcOffset).relocate(ref, relocs, compStart);
+        }
     }
 
     @Override
@@ -216,19 +224,20 @@ public class LIRNativeImageCodeCache extends NativeImageCodeCache {
          * size is not fixed at the time they are computed). This is just startPos, i.e. we start
          * emitting the code wherever the buffer is positioned when we're called.
          */
-        for (Entry<HostedMethod, CompilationResult> entry : compilations.entrySet()) {
+        compilations.entrySet().parallelStream().forEach(entry -> {
             HostedMethod method = entry.getKey();
             CompilationResult compilation = entry.getValue();
 
-            BufferUtil.asBaseBuffer(bufferBytes).position(startPos + method.getCodeAddressOffset());
+            /* Each method is written to a disjoint range, using its own view of the buffer. */
+            ByteBuffer methodBytes = bufferBytes.duplicate();
+            BufferUtil.asBaseBuffer(methodBytes).position(startPos + method.getCodeAddressOffset());
             int codeSize = compilation.getTargetCodeSize();
-            bufferBytes.put(compilation.getTargetCode(), 0, codeSize);
+            methodBytes.put(compilation.getTargetCode(), 0, codeSize);
 
             for (int i = codeSize; i < NumUtil.roundUp(codeSize, SubstrateOptions.codeAlignment()); i++) {
-                bufferBytes.put(CODE_FILLER_BYTE);
+                methodBytes.put(CODE_FILLER_BYTE);
             }
-        }
-        BufferUtil.asBaseBuffer(bufferBytes).position(startPos);
+        });
     }
 
     @Override
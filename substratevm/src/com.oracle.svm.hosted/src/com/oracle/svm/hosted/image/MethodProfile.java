@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.image;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.nativeimage.hosted.Feature;
+
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.pgo.MethodSamplingProfiler;
+import com.oracle.svm.core.util.UserError;
+import com.oracle.svm.hosted.FeatureImpl.AfterCompilationAccessImpl;
+import com.oracle.svm.hosted.meta.HostedMethod;
+
+/**
+ * Method hotness read from a profile written by an image built with
+ * {@link MethodSamplingProfiler.Options#PGOInstrument}. Methods are identified by their
+ * {@linkplain MethodSamplingProfiler#methodKey key}, i.e., their declaring class, name and parameter
+ * types.
+ */
+final class MethodProfile {
+
+    private final Map<String, Long> samples;
+
+    private MethodProfile(Map<String, Long> samples) {
+        this.samples = samples;
+    }
+
+    /** Returns the profile specified with {@link MethodSamplingProfiler.Options#PGO}, or null. */
+    static MethodProfile load() {
+        String file = MethodSamplingProfiler.Options.PGO.getValue();
+        if (file.isEmpty()) {
+            return null;
+        }
+        Map<String, Long> samples = new HashMap<>();
+        try {
+            for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw UserError.abort("Malformed line in method profile %s: %s", file, line);
+                }
+                samples.merge(line.substring(tab + 1), Long.parseLong(line.substring(0, tab)), Long::sum);
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw UserError.abort(e, "Failed to read method profile %s", file);
+        }
+        return new MethodProfile(samples);
+    }
+
+    long getSamples(HostedMethod method) {
+        return samples.getOrDefault(MethodSamplingProfiler.methodKey(method), 0L);
+    }
+
+    /**
+     * Orders the methods so that sampled methods come first, hottest first, followed by all other
+     * methods in their original order. Keeping the hot code dense reduces instruction cache and TLB
+     * misses.
+     */
+    List<HostedMethod> order(Collection<HostedMethod> methods) {
+        List<HostedMethod> result = new ArrayList<>(methods);
+        /* List.sort is stable, so methods without samples keep their relative order. */
+        result.sort(Collections.reverseOrder(Comparator.comparingLong(this::getSamples)));
+        return result;
+    }
+}
+
+/** Tells the method sampler where each compiled method starts, once the code layout is known. */
+@AutomaticFeature
+class MethodSamplingProfilerHostedFeature implements Feature {
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return MethodSamplingProfiler.Options.PGOInstrument.getValue();
+    }
+
+    @Override
+    public void afterCompilation(AfterCompilationAccess a) {
+        AfterCompilationAccessImpl access = (AfterCompilationAccessImpl) a;
+        List<HostedMethod> compiled = new ArrayList<>();
+        for (HostedMethod method : access.getUniverse().getMethods()) {
+            if (method.isCodeAddressOffsetValid()) {
+                compiled.add(method);
+            }
+        }
+        compiled.sort(Comparator.comparingInt(HostedMethod::getCodeAddressOffset));
+
+        int[] starts = new int[compiled.size()];
+        String[] keys = new String[compiled.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = compiled.get(i).getCodeAddressOffset();
+            keys[i] = MethodSamplingProfiler.methodKey(compiled.get(i));
+        }
+        MethodSamplingProfiler.setCompiledMethods(starts, keys);
+    }
+}
@@ -465,7 +465,10 @@ public abstract class NativeImage extends AbstractImage {
             heapSection = objectFile.newProgbitsSection(SectionName.SVM_HEAP.getFormatDependentName(objectFile.getFormat()), alignment, writable, false, heapSectionImpl);
             objectFile.createDefinedSymbol(heapSection.getName(), heapSection, 0, 0, false, false);
 
-            long offsetOfARelocatablePointer = writer.writeHeap(debug, heapSectionBuffer);
+            long offsetOfARelocatablePointer;
+            try (Timer.StopTimer t = new Timer(imageName, "(heapwrite)").start()) {
+                offsetOfARelocatablePointer = writer.writeHeap(debug, heapSectionBuffer);
+            }
             assert !SubstrateOptions.SpawnIsolates.getValue() || heapSectionBuffer.getByteBuffer().getLong((int) offsetOfARelocatablePointer) == 0L;
 
             defineDataSymbol(Isolates.IMAGE_HEAP_BEGIN_SYMBOL_NAME, heapSection, 0);
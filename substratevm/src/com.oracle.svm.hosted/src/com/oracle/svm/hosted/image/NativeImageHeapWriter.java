@@ -83,10 +83,14 @@ public final class NativeImageHeapWriter {
     @SuppressWarnings("try")
     public long writeHeap(DebugContext debug, RelocatableBuffer buffer) {
         try (Indent perHeapIndent = debug.logAndIndent("NativeImageHeap.writeHeap:")) {
-            for (ObjectInfo info : heap.getObjects()) {
+            /*
+             * Every object is written to its own range of the buffer, so the objects can be written
+             * in parallel. The only shared state, the relocations, is thread safe.
+             */
+            heap.getObjects().parallelStream().forEach(info -> {
                 assert !heap.isBlacklisted(info.getObject());
                 writeObject(info, buffer);
-            }
+            });
 
             // Only static fields that are writable get written to the native image heap,
             // the read-only static fields have been inlined into the code.
@@ -215,15 +219,21 @@ public final class NativeImageHeapWriter {
         assert size == 4 || size == 8;
         assert !NativeImageHeap.spawnIsolates() || heapLayout.isReadOnlyRelocatable(index);
         buffer.addRelocationWithoutAddend(index, size == 8 ? ObjectFile.RelocationKind.DIRECT_8 : ObjectFile.RelocationKind.DIRECT_4, target);
-        if (sectionOffsetOfARelocatablePointer == -1) {
-            sectionOffsetOfARelocatablePointer = index;
-        }
+        noteRelocatablePointer(index);
     }
 
     private void addDirectRelocationWithAddend(RelocatableBuffer buffer, int index, DynamicHub target, long objectHeaderBits) {
         assert !NativeImageHeap.spawnIsolates() || heapLayout.isReadOnlyRelocatable(index);
         buffer.addRelocationWithAddend(index, referenceSize() == 8 ? ObjectFile.RelocationKind.DIRECT_8 : ObjectFile.RelocationKind.DIRECT_4, objectHeaderBits, target);
-        if (sectionOffsetOfARelocatablePointer == -1) {
+        noteRelocatablePointer(index);
+    }
+
+    /**
+     * Remembers the lowest offset of a relocatable pointer, so that the result does not depend on
+     * the order in which the objects are written.
+     */
+    private synchronized void noteRelocatablePointer(int index) {
+        if (sectionOffsetOfARelocatablePointer == -1 || index < sectionOffsetOfARelocatablePointer) {
             sectionOffsetOfARelocatablePointer = index;
         }
     }
@@ -31,7 +31,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.graalvm.compiler.core.common.NumUtil;
 import org.graalvm.nativeimage.c.function.RelocatedPointer;
@@ -49,7 +49,8 @@ public final class RelocatableBuffer {
     public RelocatableBuffer(long size, ByteOrder byteOrder) {
         int intSize = NumUtil.safeToInt(size);
         this.byteBuffer = ByteBuffer.wrap(new byte[intSize]).order(byteOrder);
-        this.relocations = new TreeMap<>();
+        /* Relocations are added concurrently when the image heap is written in parallel. */
+        this.relocations = new ConcurrentSkipListMap<>();
     }
 
     public void addRelocationWithoutAddend(int key, ObjectFile.RelocationKind relocationKind, Object targetObject) {
@@ -37,6 +37,7 @@ import org.graalvm.compiler.nodes.spi.CoreProviders;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.word.WordTypes;
 
+import com.oracle.graal.pointsto.AnalysisParsingHints;
 import com.oracle.graal.pointsto.meta.AnalysisMethod;
 import com.oracle.svm.core.SubstrateOptions;
 import com.oracle.svm.util.ModuleSupport;
@@ -65,7 +66,8 @@ public class AnalysisGraphBuilderPhase extends SharedGraphBuilderPhase {
         @Override
         protected boolean tryInvocationPlugin(InvokeKind invokeKind, ValueNode[] args, ResolvedJavaMethod targetMethod, JavaKind resultType) {
             boolean result = super.tryInvocationPlugin(invokeKind, args, targetMethod, resultType);
-            if (result) {
+            if (result && !((AnalysisMethod) targetMethod).isIntrinsicMethod()) {
+                AnalysisParsingHints.beforeParsingSideEffect();
                 ((AnalysisMethod) targetMethod).registerAsIntrinsicMethod();
             }
             return result;
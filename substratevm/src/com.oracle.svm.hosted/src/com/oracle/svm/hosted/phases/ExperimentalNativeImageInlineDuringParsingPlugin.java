@@ -67,6 +67,7 @@ import org.graalvm.compiler.word.WordTypes;
 import org.graalvm.nativeimage.ImageSingletons;
 import org.graalvm.util.GuardedAnnotationAccess;
 
+import com.oracle.graal.pointsto.AnalysisParsingHints;
 import com.oracle.graal.pointsto.meta.AnalysisMethod;
 import com.oracle.graal.pointsto.meta.AnalysisType;
 import com.oracle.graal.pointsto.meta.HostedProviders;
@@ -199,6 +200,7 @@ public class ExperimentalNativeImageInlineDuringParsingPlugin implements InlineI
             VMError.guarantee(inlineData.callee.equals(toAnalysisMethod(callee)));
 
             if (reason == ParsingReason.PointsToAnalysis) {
+                AnalysisParsingHints.beforeParsingSideEffect();
                 AnalysisMethod aMethod = (AnalysisMethod) callee;
 
                 if (!SubstrateOptions.parseOnce()) {
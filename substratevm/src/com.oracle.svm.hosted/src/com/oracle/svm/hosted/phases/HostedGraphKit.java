@@ -50,6 +50,7 @@ import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
 import org.graalvm.compiler.nodes.type.StampTool;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 
+import com.oracle.graal.pointsto.AnalysisParsingHints;
 import com.oracle.graal.pointsto.meta.AnalysisMethod;
 import com.oracle.graal.pointsto.meta.AnalysisType;
 import com.oracle.graal.pointsto.meta.HostedProviders;
@@ -124,7 +125,8 @@ public class HostedGraphKit extends SubstrateGraphKit {
     public LoadFieldNode createLoadFieldNode(ConstantNode receiver, Class<BoxedRelocatedPointer> clazz, String fieldName) {
         try {
             ResolvedJavaType type = getMetaAccess().lookupJavaType(clazz);
-            if (type instanceof AnalysisType) {
+            if (type instanceof AnalysisType && !((AnalysisType) type).isReachable()) {
+                AnalysisParsingHints.beforeParsingSideEffect();
                 ((AnalysisType) type).registerAsReachable();
             }
             ResolvedJavaField field = getMetaAccess().lookupJavaField(clazz.getDeclaredField(fieldName));
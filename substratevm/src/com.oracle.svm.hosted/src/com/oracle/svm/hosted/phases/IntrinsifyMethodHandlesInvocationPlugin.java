@@ -101,7 +101,9 @@ import org.graalvm.compiler.serviceprovider.JavaVersionUtil;
 import org.graalvm.compiler.word.WordOperationPlugin;
 import org.graalvm.nativeimage.ImageSingletons;
 
+import com.oracle.graal.pointsto.AnalysisParsingHints;
 import com.oracle.graal.pointsto.constraints.UnsupportedFeatureException;
+import com.oracle.graal.pointsto.meta.AnalysisType;
 import com.oracle.graal.pointsto.meta.AnalysisUniverse;
 import com.oracle.svm.core.FrameAccess;
 import com.oracle.svm.core.ParsingReason;
@@ -893,7 +895,11 @@ public class IntrinsifyMethodHandlesInvocationPlugin implements NodePlugin {
     }
 
     private ResolvedJavaField lookup(ResolvedJavaField field) {
-        aUniverse.lookup(field.getDeclaringClass()).registerAsReachable();
+        AnalysisType declaringClass = aUniverse.lookup(field.getDeclaringClass());
+        if (!declaringClass.isReachable()) {
+            AnalysisParsingHints.beforeParsingSideEffect();
+            declaringClass.registerAsReachable();
+        }
         ResolvedJavaField result = aUniverse.lookup(field);
         if (hUniverse != null) {
             result = hUniverse.lookup(result);
@@ -97,6 +97,7 @@ import org.graalvm.word.Pointer;
 import org.graalvm.word.PointerBase;
 import org.graalvm.word.UnsignedWord;
 
+import com.oracle.graal.pointsto.AnalysisParsingHints;
 import com.oracle.graal.pointsto.infrastructure.UniverseMetaAccess;
 import com.oracle.graal.pointsto.meta.AnalysisField;
 import com.oracle.graal.pointsto.meta.AnalysisType;
@@ -297,6 +298,7 @@ public class SubstrateGraphBuilderPlugins {
                     AnnotationSubstitutionProcessor annotationSubstitutions, ValueNode interfacesNode) {
         Class<?>[] interfaces = extractClassArray(snippetReflection, annotationSubstitutions, interfacesNode);
         if (interfaces != null) {
+            AnalysisParsingHints.beforeParsingSideEffect();
             /* The interfaces array can be empty. The java.lang.reflect.Proxy API allows it. */
             ImageSingletons.lookup(DynamicProxyRegistry.class).addProxyClass(interfaces);
             if (ImageSingletons.contains(FallbackFeature.class)) {
@@ -471,6 +473,7 @@ public class SubstrateGraphBuilderPlugins {
                 String fieldName = snippetReflection.asObject(String.class, fieldNameNode.asJavaConstant());
                 try {
                     Field field = tclass.getDeclaredField(fieldName);
+                    AnalysisParsingHints.beforeParsingSideEffect();
                     // register the holder class and the field for reflection
                     RuntimeReflection.register(tclass);
                     RuntimeReflection.register(field);
@@ -491,6 +494,7 @@ public class SubstrateGraphBuilderPlugins {
     }
 
     private static void registerAsUnsafeAccessed(MetaAccessProvider metaAccess, Field field) {
+        AnalysisParsingHints.beforeParsingSideEffect();
         AnalysisField targetField = (AnalysisField) metaAccess.lookupJavaField(field);
         targetField.registerAsAccessed();
         AnalysisUniverse universe = (AnalysisUniverse) ((UniverseMetaAccess) metaAccess).getUniverse();
@@ -713,6 +717,7 @@ public class SubstrateGraphBuilderPlugins {
                         Class<?> clazz = snippetReflection.asObject(Class.class, clazzNode.asJavaConstant());
                         int dimensionCount = dimensionCountNode.asJavaConstant().asInt();
 
+                        AnalysisParsingHints.beforeParsingSideEffect();
                         AnalysisType type = (AnalysisType) b.getMetaAccess().lookupJavaType(clazz);
                         for (int i = 0; i < dimensionCount; i++) {
                             type = type.getArrayClass();
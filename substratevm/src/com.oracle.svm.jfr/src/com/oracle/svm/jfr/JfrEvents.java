@@ -39,7 +39,13 @@ import org.graalvm.nativeimage.Platforms;
 public enum JfrEvents {
     ThreadStartEvent("jdk.ThreadStart"),
     ThreadEndEvent("jdk.ThreadEnd"),
-    DataLossEvent("jdk.DataLoss");
+    DataLossEvent("jdk.DataLoss"),
+    GarbageCollectionEvent("jdk.GarbageCollection"),
+    GCPhasePauseEvent("jdk.GCPhasePause"),
+    JavaMonitorEnterEvent("jdk.JavaMonitorEnter"),
+    ThreadParkEvent("jdk.ThreadPark"),
+    SafepointBeginEvent("jdk.SafepointBegin"),
+    SafepointEndEvent("jdk.SafepointEnd");
 
     private final long id;
 
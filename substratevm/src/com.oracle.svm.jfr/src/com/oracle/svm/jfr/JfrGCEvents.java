@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.jfr;
+
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.nativeimage.StackValue;
+import org.graalvm.word.UnsignedWord;
+
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.heap.GCCause;
+import com.oracle.svm.core.heap.GCListener;
+
+/**
+ * Emits the {@code jdk.GarbageCollection} and {@code jdk.GCPhasePause} events. All collections are
+ * stop-the-world collections that consist of a single pause, so the pause covers the whole
+ * collection.
+ */
+public class JfrGCEvents implements GCListener {
+    private long startTicks;
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public JfrGCEvents() {
+    }
+
+    @Uninterruptible(reason = "Called during a garbage collection.")
+    @Override
+    public void beforeCollection(UnsignedWord collectionEpoch) {
+        startTicks = SubstrateJVM.isRecording() ? JfrTicks.elapsedTicks() : 0;
+    }
+
+    @Uninterruptible(reason = "Called during a garbage collection.")
+    @Override
+    public void afterCollection(UnsignedWord collectionEpoch, GCCause cause, boolean completeCollection) {
+        if (!SubstrateJVM.isRecording() || startTicks == 0) {
+            return;
+        }
+        long endTicks = JfrTicks.elapsedTicks();
+        long duration = endTicks - startTicks;
+        JfrGCName name = completeCollection ? JfrGCName.CompleteCollection : JfrGCName.IncrementalCollection;
+
+        if (SubstrateJVM.get().isEnabled(JfrEvents.GarbageCollectionEvent)) {
+            JfrNativeEventWriterData data = StackValue.get(JfrNativeEventWriterData.class);
+            if (JfrNativeEventWriterDataAccess.initializeThreadLocalNativeBuffer(data)) {
+                JfrNativeEventWriter.beginEventWrite(data, false);
+                JfrNativeEventWriter.putLong(data, JfrEvents.GarbageCollectionEvent.getId());
+                JfrNativeEventWriter.putLong(data, startTicks);
+                JfrNativeEventWriter.putLong(data, duration);
+                JfrNativeEventWriter.putLong(data, collectionEpoch.rawValue());
+                JfrNativeEventWriter.putLong(data, name.getId());
+                JfrNativeEventWriter.putLong(data, cause.getId());
+                JfrNativeEventWriter.putLong(data, duration); // sum of pauses
+                JfrNativeEventWriter.putLong(data, duration); // longest pause
+                JfrNativeEventWriter.endEventWrite(data, false);
+            }
+        }
+
+        if (SubstrateJVM.get().isEnabled(JfrEvents.GCPhasePauseEvent)) {
+            JfrNativeEventWriterData data = StackValue.get(JfrNativeEventWriterData.class);
+            if (JfrNativeEventWriterDataAccess.initializeThreadLocalNativeBuffer(data)) {
+                JfrNativeEventWriter.beginEventWrite(data, false);
+                JfrNativeEventWriter.putLong(data, JfrEvents.GCPhasePauseEvent.getId());
+                JfrNativeEventWriter.putLong(data, startTicks);
+                JfrNativeEventWriter.putLong(data, duration);
+                JfrNativeEventWriter.putEventThread(data);
+                JfrNativeEventWriter.putLong(data, collectionEpoch.rawValue());
+                JfrNativeEventWriter.putString(data, completeCollection ? "Pause Full" : "Pause Young");
+                JfrNativeEventWriter.endEventWrite(data, false);
+            }
+        }
+    }
+}
@@ -24,6 +24,8 @@
  */
 package com.oracle.svm.jfr;
 
+import org.graalvm.nativeimage.CurrentIsolate;
+
 import com.oracle.svm.core.annotate.Uninterruptible;
 
 /**
@@ -39,4 +41,22 @@ public final class JfrNativeEventWriterDataAccess {
         data.setCurrentPos(buffer.getPos());
         data.setEndPos(JfrBufferAccess.getDataEnd(buffer));
     }
+
+    /**
+     * Initializes the data with the native buffer of the current thread. Events that are written
+     * from the VM operation thread or from a thread that was attached from native code need this,
+     * as such a thread might not have JFR thread-local data. Returns false in that case.
+     */
+    @Uninterruptible(reason = "Accesses a JFR buffer", callerMustBe = true)
+    public static boolean initializeThreadLocalNativeBuffer(JfrNativeEventWriterData data) {
+        if (SubstrateJVM.get().getThreadId(CurrentIsolate.getCurrentThread()) == 0) {
+            return false;
+        }
+        JfrBuffer buffer = SubstrateJVM.getThreadLocal().getNativeBuffer();
+        if (buffer.isNull()) {
+            return false;
+        }
+        initialize(data, buffer);
+        return true;
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.jfr;
+
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.nativeimage.StackValue;
+import org.graalvm.word.UnsignedWord;
+
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.thread.SafepointListener;
+
+/**
+ * Emits the {@code jdk.SafepointBegin} and {@code jdk.SafepointEnd} events. The begin event covers
+ * the time needed to bring all threads to the safepoint, the end event the time needed to release
+ * them. There are no JNI critical regions, so the number of threads in such regions is always 0.
+ */
+public class JfrSafepointEvents implements SafepointListener {
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public JfrSafepointEvents() {
+    }
+
+    @Uninterruptible(reason = "Called during a safepoint.")
+    @Override
+    public void afterFreeze(UnsignedWord safepointId, int threadCount, long startNanos, long endNanos) {
+        if (!SubstrateJVM.isRecording() || !SubstrateJVM.get().isEnabled(JfrEvents.SafepointBeginEvent, endNanos - startNanos)) {
+            return;
+        }
+        JfrNativeEventWriterData data = StackValue.get(JfrNativeEventWriterData.class);
+        if (JfrNativeEventWriterDataAccess.initializeThreadLocalNativeBuffer(data)) {
+            JfrNativeEventWriter.beginEventWrite(data, false);
+            JfrNativeEventWriter.putLong(data, JfrEvents.SafepointBeginEvent.getId());
+            JfrNativeEventWriter.putLong(data, JfrTicks.fromNanoTime(startNanos));
+            JfrNativeEventWriter.putLong(data, endNanos - startNanos);
+            JfrNativeEventWriter.putEventThread(data);
+            JfrNativeEventWriter.putLong(data, safepointId.rawValue());
+            JfrNativeEventWriter.putInt(data, threadCount);
+            JfrNativeEventWriter.putInt(data, 0); // JNI critical threads
+            JfrNativeEventWriter.endEventWrite(data, false);
+        }
+    }
+
+    @Uninterruptible(reason = "Called during a safepoint.")
+    @Override
+    public void afterThaw(UnsignedWord safepointId, long startNanos, long endNanos) {
+        if (!SubstrateJVM.isRecording() || !SubstrateJVM.get().isEnabled(JfrEvents.SafepointEndEvent, endNanos - startNanos)) {
+            return;
+        }
+        JfrNativeEventWriterData data = StackValue.get(JfrNativeEventWriterData.class);
+        if (JfrNativeEventWriterDataAccess.initializeThreadLocalNativeBuffer(data)) {
+            JfrNativeEventWriter.beginEventWrite(data, false);
+            JfrNativeEventWriter.putLong(data, JfrEvents.SafepointEndEvent.getId());
+            JfrNativeEventWriter.putLong(data, JfrTicks.fromNanoTime(startNanos));
+            JfrNativeEventWriter.putLong(data, endNanos - startNanos);
+            JfrNativeEventWriter.putEventThread(data);
+            JfrNativeEventWriter.putLong(data, safepointId.rawValue());
+            JfrNativeEventWriter.endEventWrite(data, false);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.jfr;
+
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.nativeimage.StackValue;
+
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.thread.ThreadBlockingListener;
+
+/**
+ * Emits the {@code jdk.JavaMonitorEnter} and {@code jdk.ThreadPark} events. As in HotSpot, only
+ * contended monitor enters are reported, and events shorter than the configured threshold are
+ * dropped.
+ */
+public class JfrThreadBlockingEvents implements ThreadBlockingListener {
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public JfrThreadBlockingEvents() {
+    }
+
+    @Uninterruptible(reason = "Accesses a JFR buffer.")
+    @Override
+    public void afterMonitorEnter(Class<?> monitorClass, long monitorAddress, long previousOwnerId, long startNanos, long endNanos) {
+        if (!SubstrateJVM.isRecording() || !SubstrateJVM.get().isEnabled(JfrEvents.JavaMonitorEnterEvent, endNanos - startNanos)) {
+            return;
+        }
+        JfrNativeEventWriterData data = StackValue.get(JfrNativeEventWriterData.class);
+        if (JfrNativeEventWriterDataAccess.initializeThreadLocalNativeBuffer(data)) {
+            JfrNativeEventWriter.beginEventWrite(data, false);
+            JfrNativeEventWriter.putLong(data, JfrEvents.JavaMonitorEnterEvent.getId());
+            JfrNativeEventWriter.putLong(data, JfrTicks.fromNanoTime(startNanos));
+            JfrNativeEventWriter.putLong(data, endNanos - startNanos);
+            JfrNativeEventWriter.putEventThread(data);
+            JfrNativeEventWriter.putLong(data, 0); // stack trace
+            JfrNativeEventWriter.putClass(data, monitorClass);
+            JfrNativeEventWriter.putLong(data, previousOwnerId);
+            JfrNativeEventWriter.putLong(data, monitorAddress);
+            JfrNativeEventWriter.endEventWrite(data, false);
+        }
+    }
+
+    @Uninterruptible(reason = "Accesses a JFR buffer.")
+    @Override
+    public void afterPark(Class<?> parkedClass, long blockerAddress, long timeout, long startNanos, long endNanos) {
+        if (!SubstrateJVM.isRecording() || !SubstrateJVM.get().isEnabled(JfrEvents.ThreadParkEvent, endNanos - startNanos)) {
+            return;
+        }
+        JfrNativeEventWriterData data = StackValue.get(JfrNativeEventWriterData.class);
+        if (JfrNativeEventWriterDataAccess.initializeThreadLocalNativeBuffer(data)) {
+            JfrNativeEventWriter.beginEventWrite(data, false);
+            JfrNativeEventWriter.putLong(data, JfrEvents.ThreadParkEvent.getId());
+            JfrNativeEventWriter.putLong(data, JfrTicks.fromNanoTime(startNanos));
+            JfrNativeEventWriter.putLong(data, endNanos - startNanos);
+            JfrNativeEventWriter.putEventThread(data);
+            JfrNativeEventWriter.putLong(data, 0); // stack trace
+            JfrNativeEventWriter.putClass(data, parkedClass);
+            JfrNativeEventWriter.putLong(data, timeout);
+            JfrNativeEventWriter.putLong(data, blockerAddress);
+            JfrNativeEventWriter.endEventWrite(data, false);
+        }
+    }
+}
@@ -87,11 +87,15 @@ public class JfrThreadLocal implements ThreadListener {
         // object.
         Target_java_lang_Thread t = SubstrateUtil.cast(javaThread, Target_java_lang_Thread.class);
         traceId.set(isolateThread, t.getId());
+
+        writeThreadStartEvent(isolateThread);
     }
 
     @Uninterruptible(reason = "Accesses a JFR buffer.")
     @Override
     public void afterThreadExit(IsolateThread isolateThread, Thread javaThread) {
+        writeThreadEndEvent(isolateThread);
+
         // Flush all buffers if necessary.
         if (SubstrateJVM.isRecording()) {
             JfrBuffer jb = javaBuffer.get(isolateThread);
@@ -117,6 +121,47 @@ public class JfrThreadLocal implements ThreadListener {
         nativeBuffer.set(isolateThread, WordFactory.nullPointer());
     }
 
+    @Uninterruptible(reason = "Accesses a JFR buffer.")
+    private void writeThreadStartEvent(IsolateThread isolateThread) {
+        if (!SubstrateJVM.isRecording() || !SubstrateJVM.get().isEnabled(JfrEvents.ThreadStartEvent)) {
+            return;
+        }
+        JfrBuffer buffer = getNativeBuffer();
+        if (buffer.isNull()) {
+            return;
+        }
+
+        JfrNativeEventWriterData data = StackValue.get(JfrNativeEventWriterData.class);
+        JfrNativeEventWriterDataAccess.initialize(data, buffer);
+        JfrNativeEventWriter.beginEventWrite(data, false);
+        JfrNativeEventWriter.putLong(data, JfrEvents.ThreadStartEvent.getId());
+        JfrNativeEventWriter.putLong(data, JfrTicks.elapsedTicks());
+        JfrNativeEventWriter.putEventThread(data);
+        JfrNativeEventWriter.putLong(data, 0); // stack trace
+        JfrNativeEventWriter.putThread(data, isolateThread);
+        JfrNativeEventWriter.endEventWrite(data, false);
+    }
+
+    @Uninterruptible(reason = "Accesses a JFR buffer.")
+    private void writeThreadEndEvent(IsolateThread isolateThread) {
+        if (!SubstrateJVM.isRecording() || !SubstrateJVM.get().isEnabled(JfrEvents.ThreadEndEvent)) {
+            return;
+        }
+        JfrBuffer buffer = getNativeBuffer();
+        if (buffer.isNull()) {
+            return;
+        }
+
+        JfrNativeEventWriterData data = StackValue.get(JfrNativeEventWriterData.class);
+        JfrNativeEventWriterDataAccess.initialize(data, buffer);
+        JfrNativeEventWriter.beginEventWrite(data, false);
+        JfrNativeEventWriter.putLong(data, JfrEvents.ThreadEndEvent.getId());
+        JfrNativeEventWriter.putLong(data, JfrTicks.elapsedTicks());
+        JfrNativeEventWriter.putEventThread(data);
+        JfrNativeEventWriter.putThread(data, isolateThread);
+        JfrNativeEventWriter.endEventWrite(data, false);
+    }
+
     @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     public long getTraceId(IsolateThread isolateThread) {
         return traceId.get(isolateThread);
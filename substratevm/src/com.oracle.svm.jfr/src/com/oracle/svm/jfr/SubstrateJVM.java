@@ -37,7 +37,6 @@ import org.graalvm.word.WordFactory;
 
 import com.oracle.svm.core.annotate.Uninterruptible;
 import com.oracle.svm.core.thread.JavaVMOperation;
-import com.oracle.svm.core.thread.ThreadListener;
 import com.oracle.svm.core.util.VMError;
 import com.oracle.svm.jfr.logging.JfrLogging;
 
@@ -121,7 +120,7 @@ class SubstrateJVM {
     }
 
     @Fold
-    public static ThreadListener getThreadLocal() {
+    public static JfrThreadLocal getThreadLocal() {
         return get().threadLocal;
     }
 
@@ -421,6 +420,13 @@ class SubstrateJVM {
         return eventSettings[(int) event.getId()].isEnabled();
     }
 
+    /** Returns true if the event is enabled and the duration reaches its threshold. */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    public boolean isEnabled(JfrEvents event, long durationTicks) {
+        JfrNativeEventSetting setting = eventSettings[(int) event.getId()];
+        return setting.isEnabled() && durationTicks >= setting.getThresholdTicks();
+    }
+
     /** See {@link JVM#setThreshold}. */
     public boolean setThreshold(long eventTypeId, long ticks) {
         eventSettings[NumUtil.safeToInt(eventTypeId)].setThresholdTicks(ticks);
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.svm.core.genscavenge.CollectionPolicy;
+import com.oracle.svm.core.genscavenge.HeapPolicy;
+
+public class AdaptiveCollectionPolicyTest {
+
+    private static final long SECOND_NANOS = 1_000_000_000L;
+
+    private static final UnsignedWord MAX_YOUNG_SIZE = HeapPolicy.getAlignedHeapChunkSize().multiply(64);
+
+    @Test
+    public void testShrinkForFootprint() {
+        CollectionPolicy.Adaptive policy = new CollectionPolicy.Adaptive();
+        Assert.assertEquals(MAX_YOUNG_SIZE.rawValue(), policy.getYoungGenerationSize(MAX_YOUNG_SIZE).rawValue());
+
+        /* Collections that take much less time than permitted. */
+        policy.update(1_000, SECOND_NANOS, MAX_YOUNG_SIZE);
+        UnsignedWord size = policy.getYoungGenerationSize(MAX_YOUNG_SIZE);
+        Assert.assertTrue(size.belowThan(MAX_YOUNG_SIZE));
+        assertChunkMultiple(size);
+
+        for (int i = 0; i < 1000; i++) {
+            policy.update(1_000, SECOND_NANOS, MAX_YOUNG_SIZE);
+        }
+        Assert.assertEquals("Never smaller than one chunk", HeapPolicy.getAlignedHeapChunkSize().rawValue(), policy.getYoungGenerationSize(MAX_YOUNG_SIZE).rawValue());
+    }
+
+    @Test
+    public void testGrowForThroughput() {
+        CollectionPolicy.Adaptive policy = new CollectionPolicy.Adaptive();
+        for (int i = 0; i < 1000; i++) {
+            policy.update(1_000, SECOND_NANOS, MAX_YOUNG_SIZE);
+        }
+
+        /* Collections that take more time than permitted, starting from a single chunk. */
+        UnsignedWord previous = policy.getYoungGenerationSize(MAX_YOUNG_SIZE);
+        for (int i = 0; i < 10; i++) {
+            policy.update(SECOND_NANOS / 2, SECOND_NANOS, MAX_YOUNG_SIZE);
+        }
+        Assert.assertTrue(policy.getYoungGenerationSize(MAX_YOUNG_SIZE).aboveThan(previous));
+
+        for (int i = 0; i < 1000; i++) {
+            policy.update(SECOND_NANOS / 2, SECOND_NANOS, MAX_YOUNG_SIZE);
+        }
+        Assert.assertEquals("Never larger than the maximum", MAX_YOUNG_SIZE.rawValue(), policy.getYoungGenerationSize(MAX_YOUNG_SIZE).rawValue());
+    }
+
+    /** The policy keeps its own size and respects the current maximum of the heap policy. */
+    @Test
+    public void testMaximumYoungGenerationSizeUnchanged() {
+        UnsignedWord heapPolicyMaxYoungSize = HeapPolicy.getMaximumYoungGenerationSize();
+        CollectionPolicy.Adaptive policy = new CollectionPolicy.Adaptive();
+        for (int i = 0; i < 100; i++) {
+            policy.update(1_000, SECOND_NANOS, MAX_YOUNG_SIZE);
+        }
+        Assert.assertEquals(heapPolicyMaxYoungSize.rawValue(), HeapPolicy.getMaximumYoungGenerationSize().rawValue());
+
+        UnsignedWord smallerMax = HeapPolicy.getAlignedHeapChunkSize().multiply(2);
+        Assert.assertEquals(smallerMax.rawValue(), policy.getYoungGenerationSize(smallerMax).rawValue());
+        policy.update(SECOND_NANOS / 2, SECOND_NANOS, smallerMax);
+        Assert.assertTrue(policy.getYoungGenerationSize(smallerMax).belowOrEqual(smallerMax));
+    }
+
+    private static void assertChunkMultiple(UnsignedWord size) {
+        Assert.assertEquals(0, size.unsignedRemainder(HeapPolicy.getAlignedHeapChunkSize()).rawValue());
+    }
+}
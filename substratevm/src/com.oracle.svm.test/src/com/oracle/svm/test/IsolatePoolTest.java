@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.graalvm.nativeimage.CurrentIsolate;
+import org.graalvm.nativeimage.Isolate;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.nativeimage.Isolates;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.svm.core.c.function.IsolatePool;
+
+public class IsolatePoolTest {
+
+    @Test
+    public void testAcquireRelease() throws InterruptedException {
+        IsolatePool pool = new IsolatePool(2);
+        try {
+            List<Long> isolates = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                IsolateThread thread = pool.acquire();
+                Isolate isolate = Isolates.getIsolate(thread);
+                Assert.assertNotEquals("Must be a new isolate", CurrentIsolate.getIsolate().rawValue(), isolate.rawValue());
+                Assert.assertFalse("Isolates must not be reused", isolates.contains(isolate.rawValue()));
+                isolates.add(isolate.rawValue());
+                pool.release(thread);
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testAcquireAfterClose() throws InterruptedException {
+        IsolatePool pool = new IsolatePool(1);
+        pool.close();
+        try {
+            pool.acquire();
+            Assert.fail("Acquired an isolate from a closed pool");
+        } catch (IllegalStateException e) {
+            /* Expected. */
+        }
+    }
+
+    @Test
+    public void testReleaseAfterClose() throws InterruptedException {
+        IsolatePool pool = new IsolatePool(1);
+        IsolateThread thread = pool.acquire();
+        pool.close();
+        /* Tears down the isolate in the current thread. */
+        pool.release(thread);
+    }
+
+    /** A caller that waits in acquire() must be woken up when the pool is closed. */
+    @Test
+    public void testCloseWakesUpWaitingCallers() throws InterruptedException {
+        IsolatePool pool = new IsolatePool(1);
+        CountDownLatch acquiredFirst = new CountDownLatch(1);
+        List<IsolateThread> acquired = new ArrayList<>();
+        Throwable[] result = new Throwable[1];
+        Thread caller = new Thread(() -> {
+            try {
+                while (true) {
+                    acquired.add(pool.acquire());
+                    acquiredFirst.countDown();
+                }
+            } catch (Throwable e) {
+                result[0] = e;
+            } finally {
+                for (IsolateThread thread : acquired) {
+                    pool.release(thread);
+                }
+            }
+        });
+        caller.start();
+        acquiredFirst.await();
+        pool.close();
+        caller.join(60_000);
+        Assert.assertFalse("Caller still waits in acquire()", caller.isAlive());
+        Assert.assertTrue(String.valueOf(result[0]), result[0] instanceof IllegalStateException);
+    }
+}
@@ -25,6 +25,7 @@
 
 package com.oracle.svm.test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -32,6 +33,9 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.channels.NonWritableChannelException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.DirectoryStream;
@@ -47,6 +51,7 @@ import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
 import java.nio.file.spi.FileSystemProvider;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -322,6 +327,103 @@ public class NativeImageResourceFileSystemProviderTest {
         closeFileSystem(fileSystem);
     }
 
+    /**
+     * <p>
+     * Reading from file using the read-only {@link java.nio.channels.FileChannel} of a resource.
+     * </p>
+     *
+     * <p>
+     * <b>Description: </b> We are doing next operations: </br>
+     * <ol>
+     * <li>Create new file system</li>
+     * <li>Positional and scattering reads, and transferTo</li>
+     * <li>Writing into file, which must be rejected</li>
+     * <li>Accessing the position after close, which must be rejected</li>
+     * <li>Closing file system</li>
+     * </ol>
+     * </p>
+     */
+    @Test
+    public void readOnlyFileChannel() throws IOException {
+        // 1. Creating new file system.
+        FileSystem fileSystem = createNewFileSystem();
+        Path resourceFile2 = resourceNameToPath(RESOURCE_FILE_2);
+        byte[] expected = readAllBytes(resourceNameToURL(RESOURCE_FILE_2).openStream());
+        Assert.assertTrue("Resource is too short for this test!", expected.length >= 4);
+
+        Set<StandardOpenOption> permissions = Collections.singleton(StandardOpenOption.READ);
+        FileChannel channel = fileSystem.provider().newFileChannel(resourceFile2, permissions);
+        try {
+            Assert.assertEquals(expected.length, channel.size());
+
+            // 2. Positional and scattering reads, and transferTo.
+            ByteBuffer positional = ByteBuffer.allocate(expected.length);
+            Assert.assertEquals(expected.length - 2, channel.read(positional, 2));
+            Assert.assertArrayEquals(Arrays.copyOfRange(expected, 2, expected.length), Arrays.copyOf(positional.array(), positional.position()));
+            Assert.assertEquals("Positional read must not change the position!", 0, channel.position());
+            Assert.assertEquals(-1, channel.read(ByteBuffer.allocate(1), expected.length));
+
+            ByteBuffer first = ByteBuffer.allocate(3);
+            ByteBuffer rest = ByteBuffer.allocate(expected.length);
+            Assert.assertEquals(expected.length, channel.read(new ByteBuffer[]{first, rest}));
+            Assert.assertEquals(expected.length, channel.position());
+            Assert.assertArrayEquals(Arrays.copyOf(expected, 3), first.array());
+            Assert.assertArrayEquals(Arrays.copyOfRange(expected, 3, expected.length), Arrays.copyOf(rest.array(), rest.position()));
+            Assert.assertEquals(-1, channel.read(new ByteBuffer[]{ByteBuffer.allocate(1)}));
+
+            ByteArrayOutputStream transferred = new ByteArrayOutputStream();
+            Assert.assertEquals(expected.length - 1, channel.transferTo(1, Long.MAX_VALUE, Channels.newChannel(transferred)));
+            Assert.assertArrayEquals(Arrays.copyOfRange(expected, 1, expected.length), transferred.toByteArray());
+            Assert.assertEquals(0, channel.transferTo(expected.length, 1, Channels.newChannel(new ByteArrayOutputStream())));
+
+            // 3. Writing into file.
+            try {
+                channel.write(ByteBuffer.wrap(new byte[]{1}));
+                Assert.fail("Writing into a read-only channel!");
+            } catch (NonWritableChannelException ignored) {
+            }
+            try {
+                channel.write(ByteBuffer.wrap(new byte[]{1}), 0);
+                Assert.fail("Writing into a read-only channel!");
+            } catch (NonWritableChannelException ignored) {
+            }
+            try {
+                channel.truncate(0);
+                Assert.fail("Truncating a read-only channel!");
+            } catch (NonWritableChannelException ignored) {
+            }
+        } finally {
+            channel.close();
+        }
+
+        // 4. Accessing the position after close.
+        Assert.assertFalse(channel.isOpen());
+        try {
+            channel.position();
+            Assert.fail("Accessing the position of a closed channel!");
+        } catch (ClosedChannelException ignored) {
+        }
+        try {
+            channel.position(0);
+            Assert.fail("Setting the position of a closed channel!");
+        } catch (ClosedChannelException ignored) {
+        }
+
+        // 5. Closing file system.
+        closeFileSystem(fileSystem);
+    }
+
+    private static byte[] readAllBytes(InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
     /**
      * <p>
      * Writing into file using {@link java.nio.channels.FileChannel}.
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.svm.core.genscavenge.HeapPolicyOptions;
+import com.oracle.svm.core.option.RuntimeOptionValues;
+
+/**
+ * Tests reference processing when full GCs keep old-generation chunks in place, see
+ * {@link HeapPolicyOptions#OldGenerationCopyInterval}.
+ */
+public class OldGenerationCopyIntervalTest {
+
+    private static final int COPY_INTERVAL = 3;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @After
+    public void resetCopyInterval() {
+        RuntimeOptionValues.singleton().update(HeapPolicyOptions.OldGenerationCopyInterval, 0);
+    }
+
+    /** By default, every full GC copies, so unreachable references are never enqueued. */
+    @Test
+    public void testUnreachableReferenceNotEnqueuedByDefault() throws InterruptedException {
+        ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        createUnreachableReference(queue);
+        for (int i = 0; i < COPY_INTERVAL + 1; i++) {
+            System.gc();
+        }
+        Assert.assertNull("An unreachable reference was enqueued", queue.remove(1000));
+    }
+
+    /**
+     * A reachable reference in a retained chunk, whose referent died, must be cleared and enqueued
+     * at the latest by the next copying GC.
+     */
+    @Test
+    public void testReferenceInRetainedChunk() throws InterruptedException {
+        ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        Object referent = new Object();
+        WeakReference<Object> reference = new WeakReference<>(referent, queue);
+
+        /* Promote the reference and its referent to the old generation. */
+        System.gc();
+        RuntimeOptionValues.singleton().update(HeapPolicyOptions.OldGenerationCopyInterval, COPY_INTERVAL);
+        /* Now the chunks of the reference and the referent are retained. */
+        System.gc();
+        Assert.assertSame(referent, reference.get());
+
+        referent = null;
+        for (int i = 0; i < COPY_INTERVAL; i++) {
+            System.gc();
+        }
+        Assert.assertNull("The referent was not cleared", reference.get());
+        Reference<?> enqueued = queue.remove(TIMEOUT_MILLIS);
+        Assert.assertSame(reference, enqueued);
+    }
+
+    private static void createUnreachableReference(ReferenceQueue<Object> queue) {
+        new WeakReference<>(new Object(), queue);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.graalvm.nativeimage.CurrentIsolate;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.word.WordFactory;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.svm.core.thread.ThreadHandshake;
+
+public class ThreadHandshakeTest {
+
+    /** Spins in Java code, so it must be stopped at a safepoint check. */
+    private static SpinningThread javaThread;
+    /** Blocks in native code, so the operation is executed on its behalf. */
+    private static BlockedThread nativeThread;
+
+    private static final CountDownLatch started = new CountDownLatch(2);
+    private static final CountDownLatch release = new CountDownLatch(1);
+
+    private final RecordingOperation operation = new RecordingOperation();
+
+    static final class SpinningThread extends Thread {
+        volatile long isolateThread;
+        volatile boolean stop;
+        volatile long iterations;
+
+        @Override
+        public void run() {
+            isolateThread = CurrentIsolate.getCurrentThread().rawValue();
+            started.countDown();
+            while (!stop) {
+                iterations++;
+            }
+        }
+    }
+
+    /** Blocks below {@link #BLOCKED_DEPTH} recursive frames, to test deep stack traces. */
+    static final class BlockedThread extends Thread {
+        static final int BLOCKED_DEPTH = 200;
+
+        volatile long isolateThread;
+
+        @Override
+        public void run() {
+            isolateThread = CurrentIsolate.getCurrentThread().rawValue();
+            block(BLOCKED_DEPTH);
+        }
+
+        private static void block(int depth) {
+            if (depth > 0) {
+                block(depth - 1);
+                return;
+            }
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /** Records the threads it was executed for, without allocating. */
+    static final class RecordingOperation extends ThreadHandshake.Operation {
+        final long[] threads = new long[1024];
+        int count;
+
+        RecordingOperation() {
+            super("RecordingOperation");
+        }
+
+        @Override
+        protected void operate(IsolateThread thread) {
+            if (count < threads.length) {
+                threads[count++] = thread.rawValue();
+            }
+        }
+
+        boolean executedFor(long thread) {
+            for (int i = 0; i < count; i++) {
+                if (threads[i] == thread) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @BeforeClass
+    public static void startThreads() throws InterruptedException {
+        javaThread = new SpinningThread();
+        nativeThread = new BlockedThread();
+        javaThread.start();
+        nativeThread.start();
+        started.await();
+    }
+
+    @AfterClass
+    public static void stopThreads() throws InterruptedException {
+        javaThread.stop = true;
+        release.countDown();
+        javaThread.join();
+        nativeThread.join();
+    }
+
+    @Before
+    public void resetOperation() {
+        operation.count = 0;
+    }
+
+    @Test
+    public void testExecuteThreadInJava() {
+        Assert.assertTrue(ThreadHandshake.execute(WordFactory.pointer(javaThread.isolateThread), operation));
+        Assert.assertEquals(1, operation.count);
+        Assert.assertTrue(operation.executedFor(javaThread.isolateThread));
+        assertResumed(javaThread);
+    }
+
+    @Test
+    public void testExecuteThreadInNative() {
+        Assert.assertTrue(ThreadHandshake.execute(WordFactory.pointer(nativeThread.isolateThread), operation));
+        Assert.assertEquals(1, operation.count);
+        Assert.assertTrue(operation.executedFor(nativeThread.isolateThread));
+    }
+
+    @Test
+    public void testExecuteForAllThreads() {
+        int count = ThreadHandshake.executeForAllThreads(operation);
+        Assert.assertEquals(operation.count, count);
+        Assert.assertTrue(operation.executedFor(javaThread.isolateThread));
+        Assert.assertTrue(operation.executedFor(nativeThread.isolateThread));
+        Assert.assertFalse("The current thread must not be handshaked", operation.executedFor(CurrentIsolate.getCurrentThread().rawValue()));
+        assertResumed(javaThread);
+    }
+
+    @Test
+    public void testGetStackTraceThreadInJava() {
+        Assert.assertTrue(containsFrame(javaThread.getStackTrace(), SpinningThread.class, "run"));
+        assertResumed(javaThread);
+    }
+
+    @Test
+    public void testGetStackTraceThreadInNative() {
+        StackTraceElement[] trace = nativeThread.getStackTrace();
+        Assert.assertTrue(containsFrame(trace, BlockedThread.class, "run"));
+        int blockFrames = 0;
+        for (StackTraceElement element : trace) {
+            if (element.getClassName().equals(BlockedThread.class.getName()) && element.getMethodName().equals("block")) {
+                blockFrames++;
+            }
+        }
+        Assert.assertEquals(BlockedThread.BLOCKED_DEPTH + 1, blockFrames);
+    }
+
+    @Test
+    public void testGetStackTraceTerminatedThread() throws InterruptedException {
+        Thread thread = new Thread(() -> {
+        });
+        thread.start();
+        thread.join();
+        Assert.assertEquals(0, thread.getStackTrace().length);
+    }
+
+    private static boolean containsFrame(StackTraceElement[] trace, Class<?> clazz, String methodName) {
+        for (StackTraceElement element : trace) {
+            if (element.getClassName().equals(clazz.getName()) && element.getMethodName().equals(methodName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The thread must continue to run in Java code after the handshake. */
+    private static void assertResumed(SpinningThread thread) {
+        long iterations = thread.iterations;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (thread.iterations == iterations) {
+            Assert.assertTrue("Thread did not resume after the handshake", System.currentTimeMillis() < deadline);
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test.parsinghints;
+
+// Checkstyle: stop
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.zip.CRC32;
+
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeClassInitialization;
+
+import com.oracle.graal.pointsto.AnalysisParsingHints;
+import com.oracle.graal.pointsto.api.PointstoOptions;
+import com.oracle.svm.core.option.HostedOptionValues;
+import com.oracle.svm.hosted.FeatureImpl.AfterAnalysisAccessImpl;
+
+import sun.misc.Unsafe;
+
+class HintedClass {
+    static int reached(String[] args) {
+        int length = 0;
+        for (String arg : args) {
+            length += arg.length();
+        }
+        return length;
+    }
+
+    /**
+     * Never invoked, but named in the parsing hints, so it is parsed ahead of time when
+     * {@link #reached} is parsed.
+     */
+    static Object unreached() {
+        return SideEffectFreeMustStayUninitialized.value;
+    }
+}
+
+/**
+ * The early class initializer analysis proves this class side-effect free. If its initialization
+ * kind were computed, it would therefore be initialized at image build time.
+ */
+class SideEffectFreeMustStayUninitialized {
+    static Object value = new Object();
+}
+
+class TestAnalysisParsingHintsFeature implements Feature {
+
+    @Override
+    public void afterRegistration(AfterRegistrationAccess access) {
+        RuntimeClassInitialization.initializeAtRunTime("com.oracle.svm.test.parsinghints");
+
+        /* Hints as written by a previous build in which HintedClass.unreached() was reachable. */
+        String fileName = PointstoOptions.AnalysisParsingHintsFile.getValue(HostedOptionValues.singleton());
+        if (fileName.isEmpty()) {
+            throw new Error("The test must be built with -H:AnalysisParsingHintsFile");
+        }
+        String line = HintedClass.class.getName() + "\t" + Long.toHexString(classFileHash(HintedClass.class)) + "\tunreached()Ljava/lang/Object;";
+        try {
+            Files.write(Paths.get(fileName), Collections.singletonList(line), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new Error(ex);
+        }
+    }
+
+    @Override
+    public void afterAnalysis(AfterAnalysisAccess access) {
+        AnalysisParsingHints hints = ((AfterAnalysisAccessImpl) access).getBigBang().getParsingHints();
+        if (hints.getNumPrefetchedMethods() == 0) {
+            throw new Error("HintedClass.unreached() was not parsed ahead of time");
+        }
+        if (hints.getNumAbandonedPrefetches() == 0) {
+            throw new Error("Parsing HintedClass.unreached() ahead of time was not abandoned");
+        }
+        checkUninitialized();
+    }
+
+    @Override
+    public void beforeCompilation(BeforeCompilationAccess access) {
+        checkUninitialized();
+    }
+
+    private static void checkUninitialized() {
+        if (isInitialized(SideEffectFreeMustStayUninitialized.class)) {
+            throw new Error("Parsing an unreachable method ahead of time initialized " + SideEffectFreeMustStayUninitialized.class.getName());
+        }
+    }
+
+    /** Returns true if the class was initialized by the image generator. */
+    @SuppressWarnings("deprecation")
+    private static boolean isInitialized(Class<?> clazz) {
+        try {
+            Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return !((Unsafe) theUnsafe.get(null)).shouldBeInitialized(clazz);
+        } catch (ReflectiveOperationException ex) {
+            throw new Error(ex);
+        }
+    }
+
+    /** The same hash that {@link AnalysisParsingHints} stores for a class. */
+    private static long classFileHash(Class<?> clazz) {
+        try (InputStream in = clazz.getResourceAsStream("/" + clazz.getName().replace('.', '/') + ".class")) {
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+            }
+            return crc.getValue();
+        } catch (IOException ex) {
+            throw new Error(ex);
+        }
+    }
+}
+
+/**
+ * Parses a method ahead of time, from a parsing hints file written by
+ * {@link TestAnalysisParsingHintsFeature}, that is not reachable and references a class whose
+ * class initializer could run at image build time. The parse must be abandoned without deciding
+ * the initialization kind of that class.
+ */
+public class TestAnalysisParsingHints {
+    public static void main(String[] args) {
+        System.out.println(HintedClass.reached(args));
+    }
+}